@@ -0,0 +1,38 @@
+package com.alexbgomes.starter;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/* Boots the full application once per trial on a random port and in-memory H2, for benchmarks that need real beans.
+ */
+@State(Scope.Benchmark)
+public class StarterApplicationState {
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = run();
+    }
+
+    /* For benchmarks that need to boot with their own properties, e.g. per @Param */
+    public static ConfigurableApplicationContext run(String... properties) {
+        return new SpringApplicationBuilder(StarterApplication.class)
+                .properties("server.port=0", "logging.level.root=warn")
+                .properties(properties)
+                .run();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,109 @@
+package com.alexbgomes.starter.business.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/* Top-20 prefix lookups over a million generated usernames, packed index against a TreeSet of the same names.
+ * Setup prints the heap taken by each, measured as used heap after GC around building them; the TreeSet figure
+ * includes its String objects, which the packed index does not keep.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class UsernameIndexBenchmark {
+    private static final int NAMES = 1_000_000;
+    private static final int LIMIT = 20;
+    private static final String[] SYLLABLES = {"al", "be", "ca", "do", "el", "fi", "go", "ha", "jo", "ki", "lu", "ma", "no", "pe", "ra", "so", "ti", "vi"};
+
+    private PackedNameIndex packed;
+    private TreeSet<String> treeSet;
+    private String[] prefixes;
+    private int next;
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Setup
+    public void setUp() {
+        long before = usedHeap();
+        Random random = new Random(42);
+        List<String> generated = new ArrayList<>(NAMES);
+        while (generated.size() < NAMES) {
+            StringBuilder name = new StringBuilder();
+            int length = 6 + random.nextInt(6);
+            while (name.length() < length)
+                name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            generated.add(name.append(random.nextInt(10_000)).toString());
+        }
+
+        treeSet = new TreeSet<>(generated);
+        generated = null;
+        long treeSetBytes = usedHeap() - before;
+
+        before = usedHeap();
+        PackedNameIndex.Builder builder = PackedNameIndex.builder();
+        treeSet.forEach(builder::add);
+        packed = builder.build();
+        builder = null;
+        long packedBytes = usedHeap() - before;
+
+        System.out.printf("%n%d names: TreeSet %d bytes (%.1f/name), packed %d bytes (%.1f/name, %d counted by the index)%n",
+                treeSet.size(), treeSetBytes, (double) treeSetBytes / treeSet.size(),
+                packedBytes, (double) packedBytes / packed.size(), packed.getMemoryBytes());
+
+        prefixes = new String[1024];
+        for (int i = 0; i < prefixes.length; i++)
+            prefixes[i] = SYLLABLES[random.nextInt(SYLLABLES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)]
+                    + SYLLABLES[random.nextInt(SYLLABLES.length)].charAt(0);
+    }
+
+    private String nextPrefix() {
+        return prefixes[next++ & (prefixes.length - 1)];
+    }
+
+    @Benchmark
+    public List<String> searchPacked() {
+        List<String> matches = new ArrayList<>(LIMIT);
+        packed.forEachWithPrefix(nextPrefix(), name -> {
+            matches.add(name);
+            return matches.size() < LIMIT;
+        });
+        return matches;
+    }
+
+    @Benchmark
+    public List<String> searchTreeSet() {
+        String prefix = nextPrefix();
+        List<String> matches = new ArrayList<>(LIMIT);
+        Iterator<String> names = treeSet.tailSet(prefix, true).iterator();
+        while (matches.size() < LIMIT && names.hasNext()) {
+            String name = names.next();
+            if (!name.startsWith(prefix))
+                break;
+            matches.add(name);
+        }
+        return matches;
+    }
+}
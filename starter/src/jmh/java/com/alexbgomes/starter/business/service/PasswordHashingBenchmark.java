@@ -0,0 +1,46 @@
+package com.alexbgomes.starter.business.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordHashingBenchmark {
+    @Param({"4", "8", "10", "12"})
+    private int strength;
+
+    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    private String encodedPwd;
+
+    @Setup
+    public void setUp() {
+        bCryptPasswordEncoder = new BCryptPasswordEncoder(strength);
+        encodedPwd = bCryptPasswordEncoder.encode("P@ssword12");
+    }
+
+    @Benchmark
+    public String encode() {
+        return bCryptPasswordEncoder.encode("P@ssword12");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return bCryptPasswordEncoder.matches("P@ssword12", encodedPwd);
+    }
+}
@@ -0,0 +1,49 @@
+package com.alexbgomes.starter.business.service;
+
+import com.alexbgomes.starter.StarterApplicationState;
+import com.alexbgomes.starter.data.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/* The existence-dependent validation outcomes; the format-only ones are in UserValidatorBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceBenchmark {
+    private UserService userService;
+    private User existingUser;
+    private User missingUser;
+
+    @Setup
+    public void setUp(StarterApplicationState application) {
+        userService = application.getBean(UserService.class);
+        existingUser = new User("benchuser1", "P@ssword12");
+        missingUser = new User("benchuser2", "P@ssword12");
+        userService.setUser(new User(existingUser.getUsername(), existingUser.getPwd())).join();
+    }
+
+    @Benchmark
+    public ResponseEntity<String> registerUserTaken() {
+        return userService.setUser(existingUser).join();
+    }
+
+    @Benchmark
+    public ResponseEntity<String> loginUserNotFound() {
+        return userService.loginUser(missingUser).join();
+    }
+}
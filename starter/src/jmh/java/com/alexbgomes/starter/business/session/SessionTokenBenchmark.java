@@ -0,0 +1,52 @@
+package com.alexbgomes.starter.business.session;
+
+import com.alexbgomes.starter.StarterApplicationState;
+import com.alexbgomes.starter.business.service.UserService;
+import com.alexbgomes.starter.data.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/* Token verification against the BCrypt check it replaces on authenticated calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionTokenBenchmark {
+    private SessionTokenService sessionTokenService;
+    private UserService userService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp(StarterApplicationState application) {
+        sessionTokenService = application.getBean(SessionTokenService.class);
+        userService = application.getBean(UserService.class);
+        user = new User("benchtokenuser", "P@ssword12");
+        userService.setUser(new User(user.getUsername(), user.getPwd())).join();
+        token = userService.loginUser(user).join().getHeaders().getFirst(SessionTokenService.TOKEN_HEADER);
+    }
+
+    @Benchmark
+    public Optional<String> verifyToken() {
+        return sessionTokenService.verify(token);
+    }
+
+    @Benchmark
+    public Object loginWithPassword() {
+        return userService.loginUser(user).join();
+    }
+}
@@ -0,0 +1,82 @@
+package com.alexbgomes.starter.business.validation;
+
+import com.alexbgomes.starter.business.domain.ValidationLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/* Run with ./gradlew jmh, the gc profiler reports gc.alloc.rate.norm (bytes/op) next to the timings.
+ * legacyPatternMatches reproduces the per-request Pattern.matches calls this validator replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserValidatorBenchmark {
+    @Param({"CLEAR", "USERLEN", "USERINVALID", "PASSLEN", "PASSINVALID"})
+    private ValidationLevel input;
+
+    private UserValidator userValidator;
+    private String username;
+    private String pwd;
+
+    @Setup
+    public void setUp() {
+        userValidator = new UserValidator();
+        username = "alexgomes";
+        pwd = "P@ssword12";
+        switch (input) {
+            case USERLEN:
+                username = "alex";
+                break;
+            case USERINVALID:
+                username = "alex.gomes";
+                break;
+            case PASSLEN:
+                pwd = "P@ss1";
+                break;
+            case PASSINVALID:
+                pwd = "Password12";
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Benchmark
+    public Optional<ResponseEntity<String>> validateFormat() {
+        return userValidator.getResponse(userValidator.validateFormat(username, pwd), username);
+    }
+
+    @Benchmark
+    public ValidationLevel legacyPatternMatches() {
+        if (username.length() < 8 || username.length() > 30)
+            return ValidationLevel.USERLEN;
+
+        if (!Pattern.matches("^[a-zA-Z0-9]+$", username))
+            return ValidationLevel.USERINVALID;
+
+        if (pwd.length() < 10 || pwd.length() > 18)
+            return ValidationLevel.PASSLEN;
+
+        if (!Pattern.matches("^(?=.*[A-Za-z])(?=.*\\d)(?=.*[@$!%*#?&])[A-Za-z\\d@$!%*#?&]+$", pwd))
+            return ValidationLevel.PASSINVALID;
+
+        return ValidationLevel.CLEAR;
+    }
+}
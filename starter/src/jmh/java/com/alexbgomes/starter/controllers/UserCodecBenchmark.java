@@ -0,0 +1,125 @@
+package com.alexbgomes.starter.controllers;
+
+import com.alexbgomes.starter.business.domain.ResponseMessages;
+import com.alexbgomes.starter.data.dto.UserDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/* The converter work of one register/login/unregister request, run with -prof gc for bytes/op: reading the body
+ * through databind against the streaming reader, and writing a fixed and a username-bearing message through
+ * StringHttpMessageConverter (as String.format built it) against UserApiMessageConverter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserCodecBenchmark {
+    private static final MediaType TEXT_PLAIN_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MappingJackson2HttpMessageConverter jacksonConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+    private final StringHttpMessageConverter stringConverter = new StringHttpMessageConverter(StandardCharsets.UTF_8);
+    private final UserApiMessageConverter userApiConverter = new UserApiMessageConverter(objectMapper);
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+    private ByteArrayInputStream in;
+    private String username;
+
+    @Setup
+    public void setUp() {
+        in = new ByteArrayInputStream("{\"username\":\"alexgomes\",\"pwd\":\"P@ssword12\"}".getBytes(StandardCharsets.UTF_8));
+        username = "alexgomes";
+    }
+
+    private HttpInputMessage input() {
+        in.reset();
+        return new HttpInputMessage() {
+            private final HttpHeaders headers = new HttpHeaders();
+
+            @Override
+            public InputStream getBody() {
+                return in;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    private HttpOutputMessage output() {
+        out.reset();
+        return new HttpOutputMessage() {
+            private final HttpHeaders headers = new HttpHeaders();
+
+            @Override
+            public OutputStream getBody() {
+                return out;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    @Benchmark
+    public Object readDatabind() throws IOException {
+        return jacksonConverter.read(UserDTO.class, null, input());
+    }
+
+    @Benchmark
+    public Object readStreaming() throws IOException {
+        return userApiConverter.read(UserDTO.class, input());
+    }
+
+    @Benchmark
+    public int writeFixedDefault() throws IOException {
+        stringConverter.write(ResponseMessages.PASSWORD_INCORRECT, TEXT_PLAIN_UTF8, output());
+        return out.size();
+    }
+
+    @Benchmark
+    public int writeFixedPreEncoded() throws IOException {
+        userApiConverter.write(ResponseMessages.PASSWORD_INCORRECT, TEXT_PLAIN_UTF8, output());
+        return out.size();
+    }
+
+    @Benchmark
+    public int writeRemovedDefault() throws IOException {
+        stringConverter.write(String.format("User %s removed.", username), TEXT_PLAIN_UTF8, output());
+        return out.size();
+    }
+
+    @Benchmark
+    public int writeRemovedText() throws IOException {
+        userApiConverter.write("User " + username + " removed.", TEXT_PLAIN_UTF8, output());
+        return out.size();
+    }
+}
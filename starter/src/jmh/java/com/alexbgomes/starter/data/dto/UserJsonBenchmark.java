@@ -0,0 +1,52 @@
+package com.alexbgomes.starter.data.dto;
+
+import com.alexbgomes.starter.data.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserJsonBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ObjectReader userDTOReader;
+    private ObjectWriter userWriter;
+    private byte[] userDTOJson;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        userDTOReader = objectMapper.readerFor(UserDTO.class);
+        userWriter = objectMapper.writerFor(User.class);
+        userDTOJson = "{\"username\":\"alexgomes\",\"pwd\":\"P@ssword12\"}".getBytes(StandardCharsets.UTF_8);
+        user = new User("alexgomes", "{bcrypt}$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3hNUtfXXz3t9IlEIJxH/kbq");
+    }
+
+    @Benchmark
+    public UserDTO readUserDTO() throws IOException {
+        return userDTOReader.readValue(userDTOJson);
+    }
+
+    @Benchmark
+    public byte[] writeUser() throws IOException {
+        return userWriter.writeValueAsBytes(user);
+    }
+}
@@ -0,0 +1,48 @@
+package com.alexbgomes.starter.data.mapper;
+
+import com.alexbgomes.starter.data.dto.UserDTO;
+import com.alexbgomes.starter.data.entity.User;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/* modelMapper is the static ModelMapper the controller used before UserMapper replaced it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final UserMapper userMapper = new UserMapper();
+    private UserDTO userDTO;
+
+    @Setup
+    public void setUp() {
+        userDTO = new UserDTO();
+        userDTO.setUsername("alexgomes");
+        userDTO.setPwd("P@ssword12");
+    }
+
+    @Benchmark
+    public User modelMapper() {
+        return modelMapper.map(userDTO, User.class);
+    }
+
+    @Benchmark
+    public User userMapper() {
+        return userMapper.toEntity(userDTO);
+    }
+}
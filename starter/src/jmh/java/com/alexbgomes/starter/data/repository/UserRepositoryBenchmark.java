@@ -0,0 +1,80 @@
+package com.alexbgomes.starter.data.repository;
+
+import com.alexbgomes.starter.StarterApplicationState;
+import com.alexbgomes.starter.data.dto.UserSummaryDTO;
+import com.alexbgomes.starter.data.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserRepositoryBenchmark {
+    private static final int USERS = 1_000;
+
+    @Param({"jpa", "jooq"})
+    private String repository;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+
+    @Setup
+    public void setUp() {
+        context = StarterApplicationState.run("starter.users.repository=" + repository);
+        userRepository = context.getBean(UserRepository.class);
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++)
+            users.add(new User(String.format("benchuser%05d", i), "{noop}P@ssword12"));
+        userRepository.saveAll(users);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> findByIdHit() {
+        return userRepository.findById("benchuser00500");
+    }
+
+    @Benchmark
+    public Optional<User> findByIdMiss() {
+        return userRepository.findById("missinguser");
+    }
+
+    @Benchmark
+    public List<UserSummaryDTO> findPageAfter() {
+        return userRepository.findPageAfter("benchuser00500", 100);
+    }
+
+    @Benchmark
+    public User saveExisting() {
+        return userRepository.save(new User("benchuser00500", "{noop}P@ssword12"));
+    }
+
+    @Benchmark
+    public int saveAndDelete() {
+        userRepository.save(new User("benchnewuser", "{noop}P@ssword12"));
+        return userRepository.deleteByUsername("benchnewuser");
+    }
+}
@@ -0,0 +1,26 @@
+package com.alexbgomes.starter.loadtest;
+
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+@Getter
+public class LatencySummary {
+    private final long count;
+    private final double meanMillis;
+    private final double p50Millis;
+    private final double p90Millis;
+    private final double p99Millis;
+    private final double p999Millis;
+    private final double maxMillis;
+
+    /* Histogram values are in microseconds */
+    public LatencySummary(Histogram histogram) {
+        this.count = histogram.getTotalCount();
+        this.meanMillis = histogram.getMean() / 1000.0;
+        this.p50Millis = histogram.getValueAtPercentile(50) / 1000.0;
+        this.p90Millis = histogram.getValueAtPercentile(90) / 1000.0;
+        this.p99Millis = histogram.getValueAtPercentile(99) / 1000.0;
+        this.p999Millis = histogram.getValueAtPercentile(99.9) / 1000.0;
+        this.maxMillis = histogram.getMaxValue() / 1000.0;
+    }
+}
@@ -0,0 +1,143 @@
+package com.alexbgomes.starter.loadtest;
+
+import com.alexbgomes.starter.StarterApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/* Boots the application on a random port for each scenario, seeds users through the NDJSON import, drives the
+ * scenario's traffic and writes a JSON report. Exits with status 1 when any scenario breaks its thresholds or
+ * regresses past the plan's tolerance against a baseline report, which fails the Gradle loadTest task.
+ *
+ *   --plan=<file>       scenario plan, defaults to loadtest-plan.json on the classpath
+ *   --report=<file>     where to write the report, defaults to build/reports/loadtest/report.json
+ *   --baseline=<file>   a previous report to compare p99 and throughput against
+ *   --only=<regex>      run only the scenarios whose name matches
+ */
+@Slf4j
+public class LoadTest {
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (arg.startsWith("--") && separator > 0)
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        LoadTestPlan plan;
+        if (options.containsKey("plan")) {
+            plan = objectMapper.readValue(new File(options.get("plan")), LoadTestPlan.class);
+        } else {
+            try (InputStream in = LoadTest.class.getResourceAsStream("/loadtest-plan.json")) {
+                plan = objectMapper.readValue(in, LoadTestPlan.class);
+            }
+        }
+        JsonNode baseline = options.containsKey("baseline") ? objectMapper.readTree(new File(options.get("baseline"))) : null;
+
+        ExecutorService clientExecutor = Executors.newCachedThreadPool();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(clientExecutor)
+                .build();
+
+        List<ScenarioResult> results = new ArrayList<>();
+        for (Scenario scenario : plan.getScenarios()) {
+            if (options.containsKey("only") && !scenario.getName().matches(options.get("only")))
+                continue;
+
+            ScenarioResult result = run(client, objectMapper, plan, scenario);
+            check(result, scenario, plan, baseline);
+            results.add(result);
+            log.info("{}: {}/s target, {}/s achieved, p50 {} ms, p99 {} ms, p99.9 {} ms, errors {} ({} rejected, {} timed out) -> {}",
+                    result.getName(), result.getTargetRate(), String.format("%.1f", result.getThroughput()),
+                    result.getLatency().getP50Millis(), result.getLatency().getP99Millis(), result.getLatency().getP999Millis(),
+                    result.getErrors(), result.getRejected(), result.getTimedOut(), result.isPassed() ? "PASS" : "FAIL " + result.getViolations());
+        }
+        clientExecutor.shutdownNow();
+
+        File report = new File(options.getOrDefault("report", "build/reports/loadtest/report.json"));
+        report.getAbsoluteFile().getParentFile().mkdirs();
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("generatedAt", Instant.now().toString());
+        document.put("scenarios", results);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(report, document);
+        log.info("Load test report written to {}", report.getAbsolutePath());
+
+        System.exit(results.stream().allMatch(ScenarioResult::isPassed) ? 0 : 1);
+    }
+
+    private static ScenarioResult run(HttpClient client, ObjectMapper objectMapper, LoadTestPlan plan, Scenario scenario) throws Exception {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("logging.level.root", "warn");
+        properties.put("logging.level.org.springframework.jdbc.datasource.init.ScriptUtils", "warn");
+        properties.put("logging.level.com.alexbgomes.starter.loadtest", "info");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest-" + scenario.getName());
+        properties.putAll(scenario.getProperties());
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(StarterApplication.class).properties(properties).run()) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            URI baseUri = URI.create("http://localhost:" + port);
+            seed(client, objectMapper, baseUri, plan);
+            return new ScenarioRunner(client, objectMapper, baseUri, plan, scenario).run();
+        }
+    }
+
+    private static void seed(HttpClient client, ObjectMapper objectMapper, URI baseUri, LoadTestPlan plan) throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < plan.getSeedUsers(); i++)
+            body.append(objectMapper.writeValueAsString(Map.of("username", ScenarioRunner.seedUsername(i), "pwd", plan.getSeedPwd()))).append('\n');
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(baseUri.resolve("/api/users/import"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        long created = response.body().lines().filter(line -> line.contains("\"CREATED\"")).count();
+        if (response.statusCode() != 200 || created != plan.getSeedUsers())
+            throw new IllegalStateException("Seeding users failed with " + response.statusCode() + ": " + response.body());
+    }
+
+    private static void check(ScenarioResult result, Scenario scenario, LoadTestPlan plan, JsonNode baseline) {
+        Scenario.Thresholds thresholds = scenario.getThresholds();
+        if (result.getLatency().getP99Millis() > thresholds.getP99Millis())
+            result.getViolations().add(String.format("p99 %.1f ms > %.1f ms", result.getLatency().getP99Millis(), thresholds.getP99Millis()));
+        if (result.getErrorRate() > thresholds.getMaxErrorRate())
+            result.getViolations().add(String.format("error rate %.4f > %.4f", result.getErrorRate(), thresholds.getMaxErrorRate()));
+        if (result.getThroughput() < scenario.getRate() * thresholds.getMinThroughputRatio())
+            result.getViolations().add(String.format("throughput %.1f/s < %.1f/s", result.getThroughput(), scenario.getRate() * thresholds.getMinThroughputRatio()));
+
+        if (baseline == null)
+            return;
+        for (JsonNode previous : baseline.path("scenarios")) {
+            if (!result.getName().equals(previous.path("name").asText()))
+                continue;
+            double previousP99 = previous.path("latency").path("p99Millis").asDouble();
+            double previousThroughput = previous.path("throughput").asDouble();
+            if (result.getLatency().getP99Millis() > previousP99 * (1 + plan.getRegressionTolerance()))
+                result.getViolations().add(String.format("p99 %.1f ms regressed from baseline %.1f ms", result.getLatency().getP99Millis(), previousP99));
+            if (result.getThroughput() < previousThroughput * (1 - plan.getRegressionTolerance()))
+                result.getViolations().add(String.format("throughput %.1f/s regressed from baseline %.1f/s", result.getThroughput(), previousThroughput));
+        }
+    }
+}
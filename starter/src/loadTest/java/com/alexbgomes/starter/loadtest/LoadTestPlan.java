@@ -0,0 +1,18 @@
+package com.alexbgomes.starter.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class LoadTestPlan {
+    /* Users imported before each scenario, the pool logins are drawn from */
+    private int seedUsers = 50;
+    private String seedPwd = "P@ssword12";
+    /* Allowed drift from a baseline report, as a fraction of the baseline p99 and throughput */
+    private double regressionTolerance = 0.2;
+    private List<Scenario> scenarios = new ArrayList<>();
+}
@@ -0,0 +1,8 @@
+package com.alexbgomes.starter.loadtest;
+
+public enum Operation {
+    REGISTER,
+    LOGIN,
+    LIST,
+    UNREGISTER,
+}
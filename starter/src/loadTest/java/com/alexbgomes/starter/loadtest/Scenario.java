@@ -0,0 +1,33 @@
+package com.alexbgomes.starter.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/* One load profile: a fixed arrival rate held for a duration, a weighted operation mix, the application
+ * properties to boot with and the limits the run has to stay within.
+ */
+@Getter
+@Setter
+public class Scenario {
+    private String name;
+    /* Requests started per second, independent of how fast responses come back */
+    private double rate;
+    private Duration warmup = Duration.ofSeconds(5);
+    private Duration duration = Duration.ofSeconds(20);
+    private Map<Operation, Integer> mix = new LinkedHashMap<>();
+    private Map<String, String> properties = new LinkedHashMap<>();
+    private Thresholds thresholds = new Thresholds();
+
+    @Getter
+    @Setter
+    public static class Thresholds {
+        private double p99Millis = 1000;
+        private double maxErrorRate = 0.01;
+        /* Completed requests per second over the target rate */
+        private double minThroughputRatio = 0.95;
+    }
+}
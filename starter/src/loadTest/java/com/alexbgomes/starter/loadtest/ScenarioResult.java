@@ -0,0 +1,49 @@
+package com.alexbgomes.starter.loadtest;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+public class ScenarioResult {
+    private final String name;
+    private final double targetRate;
+    private final double durationSeconds;
+    private final long sent;
+    private final long completed;
+    private final long errors;
+    private final long rejected;
+    private final long timedOut;
+    private final double throughput;
+    private final LatencySummary latency;
+    private final Map<Operation, LatencySummary> operations;
+    /* "<operation> <status>" -> count, status -1 when the request failed without a response */
+    private final Map<String, Long> unexpectedStatuses;
+    private final List<String> violations = new ArrayList<>();
+
+    public ScenarioResult(String name, double targetRate, double durationSeconds, long sent, long completed, long errors, long rejected,
+                          long timedOut, LatencySummary latency, Map<Operation, LatencySummary> operations, Map<String, Long> unexpectedStatuses) {
+        this.name = name;
+        this.targetRate = targetRate;
+        this.durationSeconds = durationSeconds;
+        this.sent = sent;
+        this.completed = completed;
+        this.errors = errors;
+        this.rejected = rejected;
+        this.timedOut = timedOut;
+        this.throughput = (completed - errors) / durationSeconds;
+        this.latency = latency;
+        this.operations = operations;
+        this.unexpectedStatuses = unexpectedStatuses;
+    }
+
+    public double getErrorRate() {
+        return sent == 0 ? 0 : (double) (errors + timedOut) / sent;
+    }
+
+    public boolean isPassed() {
+        return violations.isEmpty();
+    }
+}
@@ -0,0 +1,192 @@
+package com.alexbgomes.starter.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/* Open-model load generator. Request i is due at start + i / rate and is sent at that moment whether or not earlier
+ * responses have arrived, and its latency is taken from the due time rather than the actual send time. A stalled
+ * server therefore shows up as queueing in the percentiles instead of silently lowering the offered load, which
+ * is the coordinated omission a closed loop of blocking clients would hide.
+ */
+class ScenarioRunner {
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final URI baseUri;
+    private final LoadTestPlan plan;
+    private final Scenario scenario;
+    private final Operation[] wheel;
+    private final Random random = new Random(42);
+    private final AtomicLong registrations = new AtomicLong();
+    private final Queue<String> registered = new ConcurrentLinkedQueue<>();
+
+    ScenarioRunner(HttpClient client, ObjectMapper objectMapper, URI baseUri, LoadTestPlan plan, Scenario scenario) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.baseUri = baseUri;
+        this.plan = plan;
+        this.scenario = scenario;
+        this.wheel = scenario.getMix().entrySet().stream()
+                .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+                .toArray(Operation[]::new);
+        if (wheel.length == 0)
+            throw new IllegalArgumentException("Scenario " + scenario.getName() + " has an empty mix");
+    }
+
+    static String seedUsername(int i) {
+        return String.format("loaduser%05d", i);
+    }
+
+    ScenarioResult run() throws Exception {
+        runPhase(scenario.getWarmup(), null);
+        Phase phase = new Phase();
+        long sent = runPhase(scenario.getDuration(), phase);
+        long timedOut = phase.awaitCompletion(sent);
+
+        Histogram total = new Histogram(HIGHEST_MICROS, 3);
+        Map<Operation, LatencySummary> operations = new EnumMap<>(Operation.class);
+        for (Map.Entry<Operation, Recorder> entry : phase.recorders.entrySet()) {
+            Histogram histogram = entry.getValue().getIntervalHistogram();
+            if (histogram.getTotalCount() == 0)
+                continue;
+            total.add(histogram);
+            operations.put(entry.getKey(), new LatencySummary(histogram));
+        }
+        return new ScenarioResult(scenario.getName(), scenario.getRate(), scenario.getDuration().toMillis() / 1000.0, sent,
+                phase.completed.get(), phase.errors.get(), phase.rejected.get(), timedOut, new LatencySummary(total), operations,
+                phase.unexpectedStatuses.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get(), Long::sum, TreeMap::new)));
+    }
+
+    private long runPhase(Duration duration, Phase phase) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / scenario.getRate());
+        long count = duration.toNanos() / intervalNanos;
+        long start = System.nanoTime();
+        for (long i = 0; i < count; i++) {
+            long due = start + i * intervalNanos;
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0)
+                LockSupport.parkNanos(wait);
+            send(wheel[random.nextInt(wheel.length)], due, phase);
+        }
+        return count;
+    }
+
+    private void send(Operation operation, long due, Phase phase) {
+        String unregistered = null;
+        if (operation == Operation.UNREGISTER) {
+            unregistered = registered.poll();
+            if (unregistered == null)
+                operation = Operation.LOGIN;
+        }
+
+        HttpRequest request;
+        int expected;
+        String username;
+        switch (operation) {
+            case REGISTER:
+                username = "loadreg" + registrations.incrementAndGet();
+                request = post("/api/register", username);
+                expected = 201;
+                break;
+            case UNREGISTER:
+                username = unregistered;
+                request = post("/api/unregister", username);
+                expected = 200;
+                break;
+            case LIST:
+                username = null;
+                request = HttpRequest.newBuilder(baseUri.resolve("/api/users?limit=100")).timeout(REQUEST_TIMEOUT).GET().build();
+                expected = 200;
+                break;
+            default:
+                username = seedUsername(random.nextInt(plan.getSeedUsers()));
+                request = post("/api/login", username);
+                expected = 200;
+        }
+
+        Operation sentOperation = operation;
+        CompletableFuture<HttpResponse<Void>> response = client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        if (phase == null)
+            response.thenAccept(r -> onRegistered(sentOperation, r.statusCode(), username));
+        else
+            response.whenComplete((r, error) -> phase.record(sentOperation, due, r == null ? -1 : r.statusCode(), expected, username));
+    }
+
+    private void onRegistered(Operation operation, int status, String username) {
+        if (operation == Operation.REGISTER && status == 201)
+            registered.add(username);
+    }
+
+    private HttpRequest post(String path, String username) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(Map.of("username", username, "pwd", plan.getSeedPwd()));
+            return HttpRequest.newBuilder(baseUri.resolve(path))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private class Phase {
+        private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final Map<String, AtomicLong> unexpectedStatuses = new ConcurrentHashMap<>();
+
+        Phase() {
+            for (Operation operation : Operation.values())
+                recorders.put(operation, new Recorder(HIGHEST_MICROS, 3));
+        }
+
+        void record(Operation operation, long due, int status, int expected, String username) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due);
+            recorders.get(operation).recordValue(Math.min(micros, HIGHEST_MICROS));
+            if (status != expected) {
+                errors.incrementAndGet();
+                unexpectedStatuses.computeIfAbsent(operation + " " + status, key -> new AtomicLong()).incrementAndGet();
+                if (status == 429 || status == 503)
+                    rejected.incrementAndGet();
+            }
+            onRegistered(operation, status, username);
+            synchronized (this) {
+                completed.incrementAndGet();
+                notifyAll();
+            }
+        }
+
+        /* Waits for the stragglers and returns how many never completed */
+        synchronized long awaitCompletion(long sent) throws InterruptedException {
+            long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+            long remaining;
+            while (completed.get() < sent && (remaining = deadline - System.nanoTime()) > 0)
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            return sent - completed.get();
+        }
+    }
+}
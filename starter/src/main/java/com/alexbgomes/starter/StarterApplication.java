@@ -2,12 +2,21 @@ package com.alexbgomes.starter;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class StarterApplication {
+	/* Enough for the full context, steps past the capacity are dropped from /actuator/startup */
+	public static final int STARTUP_EVENTS = 4096;
 
 	public static void main(String[] args) {
-		SpringApplication.run(StarterApplication.class, args);
+		SpringApplication application = new SpringApplication(StarterApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_EVENTS));
+		application.run(args);
 	}
 
 }
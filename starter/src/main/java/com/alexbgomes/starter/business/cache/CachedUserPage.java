@@ -0,0 +1,18 @@
+package com.alexbgomes.starter.business.cache;
+
+import lombok.Getter;
+import org.springframework.util.DigestUtils;
+
+/* A serialized /api/users page and its strong ETag. The ETag is derived from the bytes, so it stays valid across
+ * restarts and nodes, unlike the table version the page is cached under.
+ */
+@Getter
+public class CachedUserPage {
+    private final byte[] body;
+    private final String etag;
+
+    public CachedUserPage(byte[] body) {
+        this.body = body;
+        this.etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+}
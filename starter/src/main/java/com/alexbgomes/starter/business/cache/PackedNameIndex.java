@@ -0,0 +1,192 @@
+package com.alexbgomes.starter.business.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/* Immutable sorted set of names, front coded into a single byte[]. Names are grouped in blocks of BLOCK_SIZE;
+ * a block starts with its full name and every following name is stored as (bytes shared with the previous name,
+ * suffix length, suffix), lengths as varints. Sorted usernames share long prefixes, so this packs to a few bytes
+ * per name plus one int per block, with no object per name. A lookup binary-searches the block heads and decodes
+ * forward from there. Names are compared as unsigned UTF-8 bytes, which is code point order.
+ */
+public class PackedNameIndex {
+    static final int BLOCK_SIZE = 16;
+
+    private final byte[] data;
+    private final int[] blockOffsets;
+    private final int size;
+    private final int maxLength;
+
+    private PackedNameIndex(byte[] data, int[] blockOffsets, int size, int maxLength) {
+        this.data = data;
+        this.blockOffsets = blockOffsets;
+        this.size = size;
+        this.maxLength = maxLength;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getMemoryBytes() {
+        return data.length + 4L * blockOffsets.length;
+    }
+
+    /* Hands names starting with prefix to consumer in ascending order, until it returns false */
+    public void forEachWithPrefix(String prefix, Predicate<String> consumer) {
+        if (size == 0)
+            return;
+
+        byte[] key = prefix.getBytes(StandardCharsets.UTF_8);
+        byte[] name = new byte[maxLength];
+        int block = firstBlock(key);
+        int position = blockOffsets[block];
+        int index = block * BLOCK_SIZE;
+        int length = 0;
+        for (; index < size; index++) {
+            if (index % BLOCK_SIZE == 0) {
+                length = readVarint(position);
+                position = skipVarint(position);
+                System.arraycopy(data, position, name, 0, length);
+                position += length;
+            } else {
+                int shared = readVarint(position);
+                position = skipVarint(position);
+                int suffix = readVarint(position);
+                position = skipVarint(position);
+                System.arraycopy(data, position, name, shared, suffix);
+                position += suffix;
+                length = shared + suffix;
+            }
+
+            if (startsWith(name, length, key)) {
+                if (!consumer.test(new String(name, 0, length, StandardCharsets.UTF_8)))
+                    return;
+            } else if (compare(name, 0, length, key) > 0) {
+                return;
+            }
+        }
+    }
+
+    /* The last block whose head sorts before the prefix, where the first match can be */
+    private int firstBlock(byte[] key) {
+        int low = 0;
+        int high = blockOffsets.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            int offset = blockOffsets[middle];
+            int length = readVarint(offset);
+            if (compare(data, skipVarint(offset), length, key) < 0)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        return low;
+    }
+
+    private int readVarint(int position) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data[position++];
+            value |= (b & 0x7f) << shift;
+            if (b >= 0)
+                return value;
+        }
+    }
+
+    private int skipVarint(int position) {
+        while (data[position] < 0)
+            position++;
+        return position + 1;
+    }
+
+    private static boolean startsWith(byte[] name, int length, byte[] prefix) {
+        if (length < prefix.length)
+            return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (name[i] != prefix[i])
+                return false;
+        }
+        return true;
+    }
+
+    private static int compare(byte[] bytes, int offset, int length, byte[] other) {
+        int common = Math.min(length, other.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (bytes[offset + i] & 0xff) - (other[i] & 0xff);
+            if (difference != 0)
+                return difference;
+        }
+        return length - other.length;
+    }
+
+    /* Takes names in ascending order; repeats are dropped */
+    public static class Builder {
+        private byte[] data = new byte[1024];
+        private int[] blockOffsets = new int[64];
+        private int position;
+        private int size;
+        private int maxLength;
+        private byte[] previous = new byte[0];
+
+        private Builder() {
+        }
+
+        public Builder add(String name) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            int order = compare(bytes, 0, bytes.length, previous);
+            if (size > 0 && order == 0)
+                return this;
+            if (size > 0 && order < 0)
+                throw new IllegalArgumentException("Names must be added in ascending order: " + name);
+
+            ensureCapacity(bytes.length + 10);
+            if (size % BLOCK_SIZE == 0) {
+                int block = size / BLOCK_SIZE;
+                if (block == blockOffsets.length)
+                    blockOffsets = Arrays.copyOf(blockOffsets, block * 2);
+                blockOffsets[block] = position;
+                writeVarint(bytes.length);
+                System.arraycopy(bytes, 0, data, position, bytes.length);
+                position += bytes.length;
+            } else {
+                int shared = 0;
+                int common = Math.min(bytes.length, previous.length);
+                while (shared < common && bytes[shared] == previous[shared])
+                    shared++;
+                writeVarint(shared);
+                writeVarint(bytes.length - shared);
+                System.arraycopy(bytes, shared, data, position, bytes.length - shared);
+                position += bytes.length - shared;
+            }
+
+            previous = bytes;
+            maxLength = Math.max(maxLength, bytes.length);
+            size++;
+            return this;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > data.length)
+                data = Arrays.copyOf(data, Math.max(data.length * 2, position + extra));
+        }
+
+        private void writeVarint(int value) {
+            while ((value & ~0x7f) != 0) {
+                data[position++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            data[position++] = (byte) value;
+        }
+
+        public PackedNameIndex build() {
+            int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            return new PackedNameIndex(Arrays.copyOf(data, position), Arrays.copyOf(blockOffsets, blocks), size, maxLength);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.alexbgomes.starter.business.cache;
+
+import com.alexbgomes.starter.business.domain.UserChangedEvent;
+import com.alexbgomes.starter.config.UserCacheProperties;
+import com.alexbgomes.starter.data.datasource.ReplicaRoutingDataSource;
+import com.alexbgomes.starter.data.entity.User;
+import com.alexbgomes.starter.data.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/* Read-through username -> stored hash cache behind the username filter. Absent users are cached as
+ * Optional.empty() so repeated lookups of unknown names stay off the database too; writes go through onUserChanged.
+ * Misses load from the primary even inside a replica read, so a lagging replica never plants a stale hash or absence.
+ * Another node's writes only evict: change log rows can arrive out of order, the next read goes to the table.
+ */
+@Component
+public class UserCache {
+    private final UserRepository userRepository;
+    private final UsernameFilter usernameFilter;
+    private final Cache<String, Optional<String>> cache;
+
+    @Autowired
+    public UserCache(UserRepository userRepository, UsernameFilter usernameFilter, UserCacheProperties properties, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.usernameFilter = usernameFilter;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    public Optional<String> getPwd(String username) {
+        if (!usernameFilter.mightContain(username))
+            return Optional.empty();
+
+        return cache.get(username, key -> ReplicaRoutingDataSource.readFromPrimary(() -> userRepository.findById(key).map(User::getPwd)));
+    }
+
+    /* The database reported the name taken where the lookup said absent, e.g. a write made elsewhere that has not
+     * arrived here yet: admits it to the filter and drops the cached absence so the next read goes to the table.
+     */
+    public void onTaken(String username) {
+        usernameFilter.put(username);
+        cache.invalidate(username);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.isRemote())
+            cache.invalidate(event.getUsername());
+        else
+            cache.put(event.getUsername(), Optional.ofNullable(event.getPwd()));
+    }
+}
@@ -0,0 +1,152 @@
+package com.alexbgomes.starter.business.cache;
+
+import com.alexbgomes.starter.business.domain.UserChangedEvent;
+import com.alexbgomes.starter.config.UserChangelogProperties;
+import com.alexbgomes.starter.data.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.BatchBindStep;
+import org.jooq.DSLContext;
+import org.jooq.Record4;
+import org.jooq.Result;
+import org.jooq.SelectJoinStep;
+import org.jooq.impl.DSL;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.alexbgomes.starter.data.repository.UserChangelogTable.CHANGED_AT;
+import static com.alexbgomes.starter.data.repository.UserChangelogTable.NODE_ID;
+import static com.alexbgomes.starter.data.repository.UserChangelogTable.PWD;
+import static com.alexbgomes.starter.data.repository.UserChangelogTable.SEQ;
+import static com.alexbgomes.starter.data.repository.UserChangelogTable.USERNAME;
+import static com.alexbgomes.starter.data.repository.UserChangelogTable.USERS_CHANGELOG;
+
+/* Keeps per-node caches coherent when several nodes share one database, without a message broker. Every local
+ * UserChangedEvent is appended to USERS_CHANGELOG; every node polls the rows past the last sequence it has seen
+ * and republishes other nodes' rows as remote events, so the user cache, filter, index and page cache follow them
+ * within a poll interval. A single write's row is appended after the write has committed, so a node dying in
+ * between leaves that one change to the user cache expiry; the bulk import appends a chunk's rows in its transaction.
+ * Sequence values can commit out of order, so a gap below the last seen sequence is queried again on each poll
+ * until the row shows up or gap-timeout passes and it is taken for a rollback.
+ * Kept eager under lazy initialization, nothing else refers to it and the poll has to run from boot.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+public class UserChangelog {
+    private final DSLContext dsl;
+    private final UserChangelogProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter applied;
+    /* missing sequence -> nanoTime deadline, only touched by the poll */
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private volatile long lastSeen = -1;
+
+    @Autowired
+    public UserChangelog(DSLContext dsl, UserChangelogProperties properties, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.dsl = dsl;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.applied = Counter.builder("users.changelog.applied")
+                .description("Changes made by other nodes and applied to this node's caches")
+                .register(meterRegistry);
+        Gauge.builder("users.changelog.sequence", this, changelog -> changelog.lastSeen)
+                .register(meterRegistry);
+        Gauge.builder("users.changelog.gaps", this, changelog -> changelog.gaps.size())
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (!properties.isEnabled() || event.isLogged())
+            return;
+
+        dsl.insertInto(USERS_CHANGELOG, USERNAME, PWD, NODE_ID)
+                .values(event.getUsername(), event.getPwd(), properties.getNodeId())
+                .execute();
+    }
+
+    /* Appends the rows of many writes as one batch through tx, so a bulk write can log them in its own transaction;
+     * the writer then publishes them as logged events. Does nothing while the change log is off.
+     */
+    public void append(DSLContext tx, List<User> users) {
+        if (!properties.isEnabled() || users.isEmpty())
+            return;
+
+        BatchBindStep batch = tx.batch(tx.insertInto(USERS_CHANGELOG, USERNAME, PWD, NODE_ID).values((String) null, null, null));
+        for (User user : users)
+            batch.bind(user.getUsername(), user.getPwd(), properties.getNodeId());
+        batch.execute();
+    }
+
+    /* The first poll only records where the log ends: this node's caches start empty, older changes are in the table */
+    @Scheduled(fixedDelayString = "${starter.users.changelog.poll-interval:PT1S}")
+    public synchronized void poll() {
+        if (!properties.isEnabled())
+            return;
+
+        if (lastSeen < 0) {
+            lastSeen = dsl.select(DSL.coalesce(DSL.max(SEQ), 0L)).from(USERS_CHANGELOG).fetchOne().value1();
+            return;
+        }
+
+        if (!gaps.isEmpty()) {
+            long now = System.nanoTime();
+            gaps.values().removeIf(deadline -> deadline - now < 0);
+            if (!gaps.isEmpty()) {
+                for (Record4<Long, String, String, String> row : select().where(SEQ.in(gaps.keySet())).orderBy(SEQ).fetch()) {
+                    gaps.remove(row.value1());
+                    apply(row);
+                }
+            }
+        }
+
+        Result<Record4<Long, String, String, String>> rows = select().where(SEQ.gt(lastSeen)).orderBy(SEQ).limit(properties.getBatchSize()).fetch();
+        long gapDeadline = System.nanoTime() + properties.getGapTimeout().toNanos();
+        for (Record4<Long, String, String, String> row : rows) {
+            long seq = row.value1();
+            if (seq - lastSeen - 1 <= properties.getBatchSize()) {
+                for (long missing = lastSeen + 1; missing < seq; missing++)
+                    gaps.put(missing, gapDeadline);
+            }
+            apply(row);
+            lastSeen = seq;
+        }
+    }
+
+    private SelectJoinStep<Record4<Long, String, String, String>> select() {
+        return dsl.select(SEQ, USERNAME, PWD, NODE_ID).from(USERS_CHANGELOG);
+    }
+
+    private void apply(Record4<Long, String, String, String> row) {
+        if (properties.getNodeId().equals(row.value4()))
+            return;
+
+        eventPublisher.publishEvent(new UserChangedEvent(row.value2(), row.value3(), true));
+        applied.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${starter.users.changelog.retention:PT1H}")
+    public void prune() {
+        if (!properties.isEnabled())
+            return;
+
+        int pruned = dsl.deleteFrom(USERS_CHANGELOG)
+                .where(CHANGED_AT.lt(Timestamp.from(Instant.now().minus(properties.getRetention()))))
+                .execute();
+        if (pruned > 0)
+            log.info("Pruned {} change log rows older than {}", pruned, properties.getRetention());
+    }
+}
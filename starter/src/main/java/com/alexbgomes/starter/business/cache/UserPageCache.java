@@ -0,0 +1,57 @@
+package com.alexbgomes.starter.business.cache;
+
+import com.alexbgomes.starter.business.domain.UserChangedEvent;
+import com.alexbgomes.starter.config.UserPageCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/* Serialized /api/users pages keyed by (after, limit, table version). Every UserChangedEvent bumps the version,
+ * which covers register, unregister, rehash and bulk import without tracking which pages a write touched.
+ * The version is read before the page is loaded and bumped only after the write is done, so a page can be stored
+ * under a version older than its contents but never under a newer one. That holds only for pages read from the
+ * primary, so loaders must not read from a replica.
+ */
+@Component
+public class UserPageCache {
+    private final AtomicLong version = new AtomicLong();
+    private final Cache<PageKey, CachedUserPage> cache;
+
+    @Autowired
+    public UserPageCache(UserPageCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userPages");
+        Gauge.builder("users.pages.version", version, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("users.pages.hit.ratio", cache, c -> c.stats().hitRate()).register(meterRegistry);
+    }
+
+    public CachedUserPage get(String after, int limit, Supplier<byte[]> loader) {
+        return cache.get(new PageKey(after, limit, version.get()), key -> new CachedUserPage(loader.get()));
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static final class PageKey {
+        private final String after;
+        private final int limit;
+        private final long version;
+    }
+}
@@ -0,0 +1,92 @@
+package com.alexbgomes.starter.business.cache;
+
+import com.alexbgomes.starter.business.domain.UserChangedEvent;
+import com.alexbgomes.starter.config.UsernameFilterProperties;
+import com.alexbgomes.starter.data.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/* Answers "can this username exist?" without touching the database. A negative is definite; a positive
+ * falls through to the cache and repository. Until the first build finishes every name is a positive.
+ * Names written while a rebuild streams the table go into both the old and the new filter.
+ * Kept eager under lazy initialization so the scheduled first build still starts at boot.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+public class UsernameFilter {
+    private final UserRepository userRepository;
+    private final UsernameFilterProperties properties;
+    private final Counter negatives;
+    private volatile BloomFilter current;
+    private volatile BloomFilter building;
+
+    @Autowired
+    public UsernameFilter(UserRepository userRepository, UsernameFilterProperties properties, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.negatives = Counter.builder("users.filter.negatives")
+                .description("Username lookups answered by the filter without a database query")
+                .register(meterRegistry);
+        Gauge.builder("users.filter.memory", this, filter -> filter.current == null ? 0 : filter.current.getBitCount() / 8.0)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("users.filter.insertions", this, filter -> filter.current == null ? 0 : filter.current.getInsertions())
+                .register(meterRegistry);
+        Gauge.builder("users.filter.false.positive.rate", this, filter -> filter.current == null ? 1 : filter.current.expectedFalsePositiveRate())
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    public boolean mightContain(String username) {
+        BloomFilter filter = current;
+        if (filter == null || filter.mightContain(username))
+            return true;
+
+        negatives.increment();
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${starter.cache.users.filter.rebuild-interval:PT1H}")
+    public void rebuild() {
+        if (!properties.isEnabled())
+            return;
+
+        long start = System.nanoTime();
+        long expectedInsertions = Math.max(properties.getExpectedInsertions(), userRepository.count() * 2);
+        BloomFilter filter = new BloomFilter(expectedInsertions, properties.getFalsePositiveRate(), properties.getMaxMemory().toBytes() * 8);
+        building = filter;
+        userRepository.forEachAfter(null, summary -> filter.put(summary.getUsername()));
+        current = filter;
+        building = null;
+
+        log.info("Username filter rebuilt with {} names in {} ms, expected false positive rate {}",
+                filter.getInsertions(), (System.nanoTime() - start) / 1_000_000, filter.expectedFalsePositiveRate());
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.isRemoved())
+            put(event.getUsername());
+    }
+
+    /* Admits a name known to exist, into the filter being rebuilt as well */
+    public void put(String username) {
+        BloomFilter building = this.building;
+        BloomFilter current = this.current;
+        if (current != null)
+            current.put(username);
+        if (building != null)
+            building.put(username);
+    }
+}
@@ -0,0 +1,164 @@
+package com.alexbgomes.starter.business.cache;
+
+import com.alexbgomes.starter.business.domain.UserChangedEvent;
+import com.alexbgomes.starter.config.UserSearchProperties;
+import com.alexbgomes.starter.data.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
+
+/* Username prefix search without touching the database. The bulk of the names lives in a PackedNameIndex built by
+ * streaming the table at startup; writes since then sit in a sorted delta (name to present or removed) that
+ * overrides it, and a periodic compaction folds the delta into a new packed index. A delta entry is dropped after
+ * a compaction only if it did not change again while the compaction ran.
+ * Kept eager under lazy initialization so the scheduled first build still starts at boot.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+public class UsernameIndex {
+    private final UserRepository userRepository;
+    private final UserSearchProperties properties;
+    private final ConcurrentSkipListMap<String, Boolean> delta = new ConcurrentSkipListMap<>();
+    private volatile PackedNameIndex packed;
+
+    @Autowired
+    public UsernameIndex(UserRepository userRepository, UserSearchProperties properties, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.properties = properties;
+        Gauge.builder("users.index.memory", this, index -> index.packed == null ? 0 : index.packed.getMemoryBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("users.index.names", this, index -> index.packed == null ? 0 : index.packed.size())
+                .register(meterRegistry);
+        Gauge.builder("users.index.delta", delta, Map::size)
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return packed != null;
+    }
+
+    /* Up to limit names starting with prefix, in ascending order */
+    public List<String> search(String prefix, int limit) {
+        PackedNameIndex packed = this.packed;
+        if (packed == null)
+            throw new RejectedExecutionException("Username index is still building");
+
+        List<String> matches = new ArrayList<>(Math.min(limit, 64));
+        merge(packed, delta, prefix, name -> {
+            matches.add(name);
+            return matches.size() < limit;
+        });
+        return matches;
+    }
+
+    @Scheduled(fixedDelayString = "${starter.users.search.compact-interval:PT1M}")
+    public void refresh() {
+        if (!properties.isEnabled())
+            return;
+
+        PackedNameIndex packed = this.packed;
+        if (packed != null && delta.isEmpty())
+            return;
+
+        long start = System.nanoTime();
+        PackedNameIndex.Builder builder = PackedNameIndex.builder();
+        NavigableMap<String, Boolean> applied = new TreeMap<>();
+        if (packed == null) {
+            userRepository.forEachAfter(null, summary -> builder.add(summary.getUsername()));
+        } else {
+            applied.putAll(delta);
+            merge(packed, applied, "", name -> {
+                builder.add(name);
+                return true;
+            });
+        }
+        this.packed = builder.build();
+        applied.forEach(delta::remove);
+
+        log.info("Username index {} with {} names in {} bytes in {} ms", packed == null ? "built" : "compacted",
+                this.packed.size(), this.packed.getMemoryBytes(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        delta.put(event.getUsername(), !event.isRemoved());
+    }
+
+    /* Walks the packed names and the changes under prefix together in order; a change overrides the packed name */
+    private static void merge(PackedNameIndex packed, NavigableMap<String, Boolean> changes, String prefix, Predicate<String> consumer) {
+        Iterator<Map.Entry<String, Boolean>> pending = changes.tailMap(prefix, true).entrySet().iterator();
+        Merge merge = new Merge(pending, prefix, consumer);
+        packed.forEachWithPrefix(prefix, merge);
+        merge.finish();
+    }
+
+    private static final class Merge implements Predicate<String> {
+        private final Iterator<Map.Entry<String, Boolean>> changes;
+        private final String prefix;
+        private final Predicate<String> consumer;
+        private Map.Entry<String, Boolean> change;
+        private boolean done;
+
+        private Merge(Iterator<Map.Entry<String, Boolean>> changes, String prefix, Predicate<String> consumer) {
+            this.changes = changes;
+            this.prefix = prefix;
+            this.consumer = consumer;
+            advance();
+        }
+
+        private void advance() {
+            change = changes.hasNext() ? changes.next() : null;
+            if (change != null && !change.getKey().startsWith(prefix))
+                change = null;
+        }
+
+        private boolean emit(String name) {
+            done = !consumer.test(name);
+            return !done;
+        }
+
+        @Override
+        public boolean test(String name) {
+            while (change != null && change.getKey().compareTo(name) < 0) {
+                boolean present = change.getValue();
+                String added = change.getKey();
+                advance();
+                if (present && !emit(added))
+                    return false;
+            }
+            if (change != null && change.getKey().equals(name)) {
+                boolean present = change.getValue();
+                advance();
+                return !present || emit(name);
+            }
+            return emit(name);
+        }
+
+        private void finish() {
+            while (!done && change != null) {
+                boolean present = change.getValue();
+                String added = change.getKey();
+                advance();
+                if (present)
+                    emit(added);
+            }
+        }
+    }
+}
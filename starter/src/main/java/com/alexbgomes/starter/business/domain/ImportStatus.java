@@ -0,0 +1,7 @@
+package com.alexbgomes.starter.business.domain;
+
+public enum ImportStatus {
+    CREATED,
+    TAKEN,
+    INVALID,
+}
@@ -0,0 +1,34 @@
+package com.alexbgomes.starter.business.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/* The fixed response bodies, encoded to UTF-8 once so the text converter writes them without encoding per request.
+ * Messages that carry a username are built per call and are not listed here.
+ */
+public final class ResponseMessages {
+    public static final String USERLEN = "Username must be at least 8 characters and at most 30 characters.";
+    public static final String PASSLEN = "Password must be at least 10 characters and at most 18 characters.";
+    public static final String USERINVALID = "Username must be alphanumeric only.";
+    public static final String PASSINVALID = "Password must contain an uppercase, a lowercase, a number, and a special character.";
+    public static final String PASSWORD_INCORRECT = "Password is incorrect.";
+    public static final String USER_CREATED = "New user created.";
+    public static final String SERVER_BUSY = "Server is busy, please retry later.";
+    public static final String TOO_MANY_ATTEMPTS = "Too many attempts, please retry later.";
+
+    private static final Map<String, byte[]> ENCODED = new HashMap<>();
+
+    static {
+        for (String message : new String[]{USERLEN, PASSLEN, USERINVALID, PASSINVALID, PASSWORD_INCORRECT, USER_CREATED, SERVER_BUSY, TOO_MANY_ATTEMPTS})
+            ENCODED.put(message, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ResponseMessages() {
+    }
+
+    /* The shared UTF-8 bytes of a fixed message, null for any other text; callers must not modify them */
+    public static byte[] encoded(String message) {
+        return ENCODED.get(message);
+    }
+}
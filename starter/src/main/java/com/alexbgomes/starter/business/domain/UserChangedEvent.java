@@ -0,0 +1,56 @@
+package com.alexbgomes.starter.business.domain;
+
+/* Published after a user row is written or removed; pwd is the stored hash, or null once removed.
+ * Remote events replay a write another node made, read back from the change log. Logged events are local writes
+ * whose change log row was already appended with the write itself, as the bulk import does per chunk.
+ */
+public class UserChangedEvent {
+    private final String username;
+    private final String pwd;
+    private final boolean remote;
+    private final boolean logged;
+
+    public UserChangedEvent(String username, String pwd) {
+        this(username, pwd, false);
+    }
+
+    public UserChangedEvent(String username, String pwd, boolean remote) {
+        this(username, pwd, remote, remote);
+    }
+
+    private UserChangedEvent(String username, String pwd, boolean remote, boolean logged) {
+        this.username = username;
+        this.pwd = pwd;
+        this.remote = remote;
+        this.logged = logged;
+    }
+
+    public static UserChangedEvent removed(String username) {
+        return new UserChangedEvent(username, null);
+    }
+
+    public static UserChangedEvent logged(String username, String pwd) {
+        return new UserChangedEvent(username, pwd, false, true);
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPwd() {
+        return pwd;
+    }
+
+    public boolean isRemoved() {
+        return pwd == null;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+
+    /* Already in the change log, either read from it or appended along with the write */
+    public boolean isLogged() {
+        return logged;
+    }
+}
@@ -0,0 +1,64 @@
+package com.alexbgomes.starter.business.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/* One users.api.stage timer per endpoint, stage and outcome. Timers are resolved once and kept in
+ * enum-keyed maps, so recording a stage is a nanoTime pair and a map read. Percentiles and histogram
+ * buckets are switched on through management.metrics.distribution.* in application.properties.
+ */
+@Component
+public class UserApiMetrics {
+    public static final String STAGE_TIMER = "users.api.stage";
+    public static final String OUTCOME_OK = "ok";
+
+    public enum Endpoint {
+        REGISTER,
+        LOGIN,
+        UNREGISTER,
+    }
+
+    public enum Stage {
+        MAPPING,
+        VALIDATION,
+        REPOSITORY,
+        HASHING,
+        RESPONSE,
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Endpoint, Map<Stage, Map<String, Timer>>> timers = new EnumMap<>(Endpoint.class);
+
+    @Autowired
+    public UserApiMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Endpoint endpoint : Endpoint.values()) {
+            Map<Stage, Map<String, Timer>> stages = new EnumMap<>(Stage.class);
+            for (Stage stage : Stage.values())
+                stages.put(stage, new ConcurrentHashMap<>());
+            timers.put(endpoint, stages);
+        }
+    }
+
+    public void record(Endpoint endpoint, Stage stage, String outcome, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        Map<String, Timer> outcomes = timers.get(endpoint).get(stage);
+        Timer timer = outcomes.get(outcome);
+        if (timer == null) {
+            timer = outcomes.computeIfAbsent(outcome, key -> Timer.builder(STAGE_TIMER)
+                    .description("Latency of one stage of a user API request")
+                    .tag("endpoint", endpoint.name().toLowerCase())
+                    .tag("stage", stage.name().toLowerCase())
+                    .tag("outcome", key.toLowerCase())
+                    .register(meterRegistry));
+        }
+        timer.record(elapsed, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,67 @@
+package com.alexbgomes.starter.business.service;
+
+import com.alexbgomes.starter.config.ExecutionProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/* Where UserService runs its blocking repository calls. In servlet mode lookups run inline on the Tomcat thread as
+ * before; in offload mode they go to a wide, bounded IO pool so a slow database parks cheap IO threads instead of
+ * request threads. In both modes PasswordHasher hands every finished hash to that pool, so the writes and responses
+ * that follow never run on a hashing thread and BCrypt stays alone on the core-sized PasswordHasher pool.
+ * A full queue rejects like the hashing pool does.
+ */
+@Component
+public class BlockingIoExecutor implements Executor {
+    private final boolean offloaded;
+    private final ThreadPoolExecutor threadPool;
+    private final ExecutorService executor;
+
+    @Autowired
+    public BlockingIoExecutor(ExecutionProperties properties, MeterRegistry meterRegistry) {
+        this.offloaded = properties.getMode() == ExecutionProperties.Mode.OFFLOAD;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.threadPool = new ThreadPoolExecutor(properties.getIoThreads(), properties.getIoThreads(), 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getIoQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-io-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.threadPool.allowCoreThreadTimeOut(true);
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, threadPool, "userIo", Collections.emptyList());
+    }
+
+    public boolean isOffloaded() {
+        return offloaded;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (offloaded)
+            executor.execute(command);
+        else
+            command.run();
+    }
+
+    /* Always the pool, whatever the mode: for work that must leave the thread it was handed over on */
+    public void handOff(Runnable command) {
+        executor.execute(command);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadPool.shutdown();
+    }
+}
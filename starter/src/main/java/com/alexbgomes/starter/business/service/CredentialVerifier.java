@@ -0,0 +1,178 @@
+package com.alexbgomes.starter.business.service;
+
+import com.alexbgomes.starter.business.domain.UserChangedEvent;
+import com.alexbgomes.starter.config.CredentialCheckProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/* Password checks in front of PasswordHasher.matches for login and unregister, where client retry storms send the
+ * same username and password many times within milliseconds. A check is identified by the username and an HMAC,
+ * under a key that never leaves the process, of the stored hash and the raw password, so no raw password is kept.
+ * With single-flight on, a check identical to one still hashing joins it and completes with its result. With the
+ * verified cache on, a successful check is remembered per username for a very short TTL and repeats skip the hash.
+ * The HMAC covers the stored hash, so a changed password never matches an old entry; any change to the user,
+ * removal included, also evicts it. Failed checks are never cached.
+ */
+@Component
+public class CredentialVerifier {
+    private static final String ALGORITHM = "HmacSHA256";
+    /* Estimated heap per cached entry besides the username chars: cache node, String, 32-byte digest array */
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    private final PasswordHasher passwordHasher;
+    private final boolean singleFlight;
+    private final Cache<String, byte[]> verified;
+    private final Map<Check, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+    private final ThreadLocal<Mac> mac;
+    private final Counter computed;
+    private final Counter joined;
+    private final Counter cached;
+
+    private static final class Check {
+        private final String username;
+        private final byte[] digest;
+        private final int hash;
+
+        private Check(String username, byte[] digest) {
+            this.username = username;
+            this.digest = digest;
+            this.hash = 31 * username.hashCode() + Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Check))
+                return false;
+            Check other = (Check) o;
+            return username.equals(other.username) && Arrays.equals(digest, other.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Autowired
+    public CredentialVerifier(PasswordHasher passwordHasher, CredentialCheckProperties properties, MeterRegistry meterRegistry) throws GeneralSecurityException {
+        this.passwordHasher = passwordHasher;
+        this.singleFlight = properties.isSingleFlight();
+        CredentialCheckProperties.VerifiedCache cacheProperties = properties.getVerifiedCache();
+        if (cacheProperties.isEnabled()) {
+            this.verified = Caffeine.newBuilder()
+                    .maximumWeight(cacheProperties.getMaximumBytes())
+                    .weigher((String username, byte[] digest) -> ENTRY_OVERHEAD_BYTES + username.length())
+                    .expireAfterWrite(cacheProperties.getTtl())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, verified, "credentials");
+            Gauge.builder("users.credentials.cache.bytes", verified, cache -> cache.policy().eviction().orElseThrow().weightedSize().orElse(0))
+                    .baseUnit("bytes").register(meterRegistry);
+            Gauge.builder("users.credentials.cache.max.bytes", cacheProperties, CredentialCheckProperties.VerifiedCache::getMaximumBytes)
+                    .baseUnit("bytes").register(meterRegistry);
+        } else {
+            this.verified = null;
+        }
+
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        Mac prototype = Mac.getInstance(ALGORITHM);
+        prototype.init(new SecretKeySpec(secret, ALGORITHM));
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        this.computed = Counter.builder("users.credentials.checks").tag("result", "computed").register(meterRegistry);
+        this.joined = Counter.builder("users.credentials.checks").tag("result", "joined").register(meterRegistry);
+        this.cached = Counter.builder("users.credentials.checks").tag("result", "cached").register(meterRegistry);
+        Gauge.builder("users.credentials.inflight", inFlight, Map::size).register(meterRegistry);
+    }
+
+    /* Same contract as PasswordHasher.matches, including the RejectedExecutionException of a saturated pool */
+    public CompletableFuture<Boolean> matches(String username, String rawPwd, String storedPwd) {
+        if (!singleFlight && verified == null) {
+            computed.increment();
+            return passwordHasher.matches(rawPwd, storedPwd);
+        }
+
+        Check check = new Check(username, digest(rawPwd, storedPwd));
+        if (verified != null) {
+            byte[] verifiedDigest = verified.getIfPresent(username);
+            if (verifiedDigest != null && MessageDigest.isEqual(verifiedDigest, check.digest)) {
+                cached.increment();
+                return CompletableFuture.completedFuture(true);
+            }
+        }
+        if (!singleFlight)
+            return compute(check, rawPwd, storedPwd);
+
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = inFlight.putIfAbsent(check, result);
+        if (running != null) {
+            joined.increment();
+            return running.copy();
+        }
+
+        try {
+            compute(check, rawPwd, storedPwd).whenComplete((matches, e) -> {
+                inFlight.remove(check, result);
+                if (e != null)
+                    result.completeExceptionally(e);
+                else
+                    result.complete(matches);
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(check, result);
+            result.completeExceptionally(e);
+            throw e;
+        }
+        return result.copy();
+    }
+
+    private CompletableFuture<Boolean> compute(Check check, String rawPwd, String storedPwd) {
+        CompletableFuture<Boolean> matches = passwordHasher.matches(rawPwd, storedPwd);
+        computed.increment();
+        if (verified == null)
+            return matches;
+        return matches.thenApply(match -> {
+            if (match)
+                verified.put(check.username, check.digest);
+            return match;
+        });
+    }
+
+    private byte[] digest(String rawPwd, String storedPwd) {
+        Mac mac = this.mac.get();
+        mac.update(storedPwd.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return mac.doFinal(rawPwd.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (verified != null)
+            verified.invalidate(event.getUsername());
+    }
+}
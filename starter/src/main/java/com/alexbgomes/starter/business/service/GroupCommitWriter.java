@@ -0,0 +1,184 @@
+package com.alexbgomes.starter.business.service;
+
+import com.alexbgomes.starter.config.GroupCommitProperties;
+import com.alexbgomes.starter.config.UsersProperties;
+import com.alexbgomes.starter.data.entity.User;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.BatchBindStep;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.alexbgomes.starter.data.repository.UserTable.PWD;
+import static com.alexbgomes.starter.data.repository.UserTable.USERNAME;
+import static com.alexbgomes.starter.data.repository.UserTable.USERS;
+
+/* Group commit for registrations. Callers enqueue an already hashed user and get a future; a single flusher thread
+ * takes the first waiting row, lets others join it for up to max-delay or max-rows, and inserts the lot in one
+ * batched transaction, so concurrent registrations share one commit instead of paying one each.
+ * Every caller still gets its own outcome: true once its row is committed, false if the name was taken, either by
+ * an existing row, an earlier row in the same batch, or a registration that committed in between. The last case
+ * rolls the batch back and retries it row by row, the same way the bulk import does. Batches go to the default
+ * database, so it refuses to start with the sharded repository.
+ */
+@Slf4j
+@Component
+public class GroupCommitWriter {
+    private final DSLContext dsl;
+    private final GroupCommitProperties properties;
+    private final BlockingQueue<PendingInsert> queue;
+    private final Thread flusher;
+    private final DistributionSummary batchSize;
+    private final Timer flushTimer;
+    private volatile boolean running = true;
+
+    @Autowired
+    public GroupCommitWriter(DSLContext dsl, GroupCommitProperties properties, UsersProperties usersProperties, MeterRegistry meterRegistry) {
+        if (properties.isEnabled() && usersProperties.isSharded())
+            throw new IllegalStateException("starter.users.group-commit batches into the default database, it cannot be enabled with starter.users.repository=sharded");
+
+        this.dsl = dsl;
+        this.properties = properties;
+        this.batchSize = DistributionSummary.builder("users.groupcommit.batch.size").register(meterRegistry);
+        this.flushTimer = Timer.builder("users.groupcommit.flush").register(meterRegistry);
+        if (!properties.isEnabled()) {
+            this.queue = null;
+            this.flusher = null;
+            return;
+        }
+
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.flusher = new Thread(this::run, "user-group-commit");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public boolean isEnabled() {
+        return flusher != null;
+    }
+
+    /* Completes with true if the row was inserted, false if the username was already taken */
+    public CompletableFuture<Boolean> insert(User user) {
+        if (!isEnabled() || !running)
+            throw new RejectedExecutionException("Group commit is not running");
+        PendingInsert pending = new PendingInsert(user.getUsername(), user.getPwd());
+        if (!queue.offer(pending))
+            throw new RejectedExecutionException("Group commit queue is full");
+        return pending.result;
+    }
+
+    private void run() {
+        int maxRows = Math.max(1, properties.getMaxRows());
+        long maxDelayNanos = properties.getMaxDelay().toNanos();
+        List<PendingInsert> batch = new ArrayList<>(maxRows);
+        while (running) {
+            try {
+                PendingInsert first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxRows) {
+                    if (queue.drainTo(batch, maxRows - batch.size()) > 0)
+                        continue;
+                    long remaining = deadline - System.nanoTime();
+                    PendingInsert next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null)
+                        break;
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingInsert> batch) {
+        long start = System.nanoTime();
+        batchSize.record(batch.size());
+        try {
+            Map<String, PendingInsert> candidates = new LinkedHashMap<>();
+            for (PendingInsert pending : batch) {
+                if (candidates.putIfAbsent(pending.username, pending) != null)
+                    pending.result.complete(false);
+            }
+
+            Set<String> existing = dsl.select(USERNAME).from(USERS).where(USERNAME.in(candidates.keySet())).fetchSet(USERNAME);
+            for (String username : existing)
+                candidates.remove(username).result.complete(false);
+
+            if (!candidates.isEmpty())
+                insert(new ArrayList<>(candidates.values()));
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} rows failed", batch.size(), e);
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void insert(List<PendingInsert> rows) {
+        try {
+            dsl.transaction(configuration -> {
+                BatchBindStep batch = DSL.using(configuration).batch(
+                        DSL.using(configuration).insertInto(USERS, USERNAME, PWD).values((String) null, null));
+                for (PendingInsert pending : rows)
+                    batch.bind(pending.username, pending.pwd);
+                batch.execute();
+            });
+            rows.forEach(pending -> pending.result.complete(true));
+        } catch (DataIntegrityViolationException e) {
+            for (PendingInsert pending : rows) {
+                try {
+                    dsl.insertInto(USERS, USERNAME, PWD).values(pending.username, pending.pwd).execute();
+                    pending.result.complete(true);
+                } catch (DataIntegrityViolationException duplicate) {
+                    pending.result.complete(false);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (flusher == null)
+            return;
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        RejectedExecutionException stopped = new RejectedExecutionException("Group commit stopped");
+        for (PendingInsert pending; (pending = queue.poll()) != null; )
+            pending.result.completeExceptionally(stopped);
+    }
+
+    private static final class PendingInsert {
+        private final String username;
+        private final String pwd;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private PendingInsert(String username, String pwd) {
+            this.username = username;
+            this.pwd = pwd;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.alexbgomes.starter.business.service;
+
+import com.alexbgomes.starter.config.PasswordHashingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/* Runs password hashing off the request threads on a core-sized pool with a bounded queue.
+ * When the queue is full the submit throws RejectedExecutionException, which the API answers with 503.
+ * The returned futures complete on the blocking IO pool rather than the hashing thread, so whatever the caller chains
+ * on them, database calls included, neither holds a hashing thread nor shows up in the hash time.
+ * Queue depth, queue wait and hash time are published as executor.queued, executor.idle and executor {name=passwordHashing}.
+ */
+@Component
+public class PasswordHasher {
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor threadPool;
+    private final ExecutorService executor;
+    private final Executor completionExecutor;
+
+    @Autowired
+    public PasswordHasher(PasswordEncoder passwordEncoder, BlockingIoExecutor blockingIoExecutor, PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        int threads = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.passwordEncoder = passwordEncoder;
+        this.threadPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, threadPool, "passwordHashing", Collections.emptyList());
+        this.completionExecutor = blockingIoExecutor::handOff;
+    }
+
+    public CompletableFuture<String> encode(String rawPwd) {
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPwd), executor).thenApplyAsync(Function.identity(), completionExecutor);
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPwd, String encodedPwd) {
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.matches(rawPwd, encodedPwd), executor).thenApplyAsync(Function.identity(), completionExecutor);
+    }
+
+    public boolean needsRehash(String encodedPwd) {
+        return passwordEncoder.upgradeEncoding(encodedPwd);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadPool.shutdown();
+    }
+}
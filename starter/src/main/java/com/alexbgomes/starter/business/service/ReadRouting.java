@@ -0,0 +1,58 @@
+package com.alexbgomes.starter.business.service;
+
+import com.alexbgomes.starter.business.domain.UserChangedEvent;
+import com.alexbgomes.starter.config.ReadReplicaProperties;
+import com.alexbgomes.starter.data.datasource.ReplicaRoutingDataSource;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/* Marks UserService reads as replica reads for ReplicaRoutingDataSource. The mark is taken around the call itself
+ * because the blocking reads run on IO pool threads, out of reach of an annotation on the calling method.
+ * A user who wrote within the sticky window reads from the primary instead, so their own write is visible
+ * whatever the replica lag. With replicas off a read just runs. Reads whose results are cached do not belong here:
+ * a cache fed from a lagging replica keeps the stale answer after the replica has caught up.
+ */
+@Component
+public class ReadRouting {
+    private static final long MAXIMUM_STICKY_USERS = 100_000;
+
+    private final ReadReplicaProperties properties;
+    private final Cache<String, Boolean> recentWriters;
+
+    @Autowired
+    public ReadRouting(ReadReplicaProperties properties) {
+        this.properties = properties;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_STICKY_USERS)
+                .expireAfterWrite(properties.getStickyWindow())
+                .build();
+    }
+
+    public <T> T read(Supplier<T> query) {
+        if (!properties.isEnabled())
+            return query.get();
+        return ReplicaRoutingDataSource.readFromReplica(query);
+    }
+
+    /* A read on behalf of username, kept on the primary while their last write may not have replicated yet */
+    public <T> T read(String username, Supplier<T> query) {
+        if (isSticky(username))
+            return query.get();
+        return read(query);
+    }
+
+    public boolean isSticky(String username) {
+        return properties.isEnabled() && recentWriters.getIfPresent(username) != null;
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (properties.isEnabled() && !event.isRemote())
+            recentWriters.put(event.getUsername(), Boolean.TRUE);
+    }
+}
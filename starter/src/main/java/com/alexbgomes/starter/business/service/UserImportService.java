@@ -0,0 +1,236 @@
+package com.alexbgomes.starter.business.service;
+
+import com.alexbgomes.starter.business.cache.UserChangelog;
+import com.alexbgomes.starter.business.domain.ImportStatus;
+import com.alexbgomes.starter.business.domain.UserChangedEvent;
+import com.alexbgomes.starter.business.validation.UserValidator;
+import com.alexbgomes.starter.config.UserImportProperties;
+import com.alexbgomes.starter.config.UsersProperties;
+import com.alexbgomes.starter.data.dto.UserDTO;
+import com.alexbgomes.starter.data.dto.UserImportResultDTO;
+import com.alexbgomes.starter.data.entity.User;
+import com.alexbgomes.starter.data.mapper.UserMapper;
+import com.alexbgomes.starter.data.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.jooq.BatchBindStep;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static com.alexbgomes.starter.data.repository.UserTable.PWD;
+import static com.alexbgomes.starter.data.repository.UserTable.USERNAME;
+import static com.alexbgomes.starter.data.repository.UserTable.USERS;
+
+/* Imports NDJSON one chunk of batch-size lines at a time, so memory stays bounded whatever the input size.
+ * Per chunk: same format rules as registration, one IN query for taken names, hashing across the
+ * fork-join pool, then a single batched insert. Results are written back in input order after each chunk.
+ * With the sharded repository the default database holds no users, so lookups and inserts go through the
+ * repository one row at a time instead; only the change log rows are still batched.
+ */
+@Service
+public class UserImportService {
+    private final UserValidator userValidator;
+    private final UserMapper userMapper;
+    private final PasswordEncoder passwordEncoder;
+    private final DSLContext dsl;
+    private final UserRepository userRepository;
+    private final boolean sharded;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserChangelog userChangelog;
+    private final ObjectMapper objectMapper;
+    private final UserImportProperties properties;
+    private final ForkJoinPool hashingPool;
+
+    @Autowired
+    public UserImportService(UserValidator userValidator, UserMapper userMapper, PasswordEncoder passwordEncoder, DSLContext dsl, UserRepository userRepository,
+                             UsersProperties usersProperties, ApplicationEventPublisher eventPublisher, UserChangelog userChangelog,
+                             ObjectMapper objectMapper, UserImportProperties properties) {
+        this.userValidator = userValidator;
+        this.userMapper = userMapper;
+        this.passwordEncoder = passwordEncoder;
+        this.dsl = dsl;
+        this.userRepository = userRepository;
+        this.sharded = usersProperties.isSharded();
+        this.eventPublisher = eventPublisher;
+        this.userChangelog = userChangelog;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.hashingPool = new ForkJoinPool(properties.getParallelism() > 0 ? properties.getParallelism() : Runtime.getRuntime().availableProcessors());
+    }
+
+    private static class ImportRecord {
+        private final long line;
+        private User user;
+        private ImportStatus status;
+        private String message;
+
+        private ImportRecord(long line) {
+            this.line = line;
+        }
+
+        private void reject(ImportStatus status, String message) {
+            this.status = status;
+            this.message = message;
+        }
+    }
+
+    public void importUsers(InputStream in, OutputStream out) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(UserDTO.class);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(null);
+
+        List<ImportRecord> chunk = new ArrayList<>(properties.getBatchSize());
+        long lineNumber = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank())
+                continue;
+
+            chunk.add(parse(reader, line, lineNumber));
+            if (chunk.size() == properties.getBatchSize()) {
+                importChunk(chunk);
+                write(generator, chunk);
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            importChunk(chunk);
+            write(generator, chunk);
+        }
+    }
+
+    /* Only an object can describe a user; null, scalars and arrays are rejected like malformed lines */
+    private ImportRecord parse(ObjectReader reader, String line, long lineNumber) throws IOException {
+        ImportRecord record = new ImportRecord(lineNumber);
+        try (JsonParser parser = reader.getFactory().createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                record.reject(ImportStatus.INVALID, "Expected a JSON object.");
+                return record;
+            }
+            record.user = userMapper.toEntity(reader.readValue(parser));
+        } catch (JsonProcessingException e) {
+            record.reject(ImportStatus.INVALID, "Malformed JSON.");
+            return record;
+        }
+
+        Optional<ResponseEntity<String>> invalidResponse = userValidator.getResponseIfInvalid(record.user);
+        invalidResponse.ifPresent(response -> record.reject(ImportStatus.INVALID, response.getBody()));
+        return record;
+    }
+
+    private void importChunk(List<ImportRecord> chunk) {
+        Map<String, ImportRecord> candidates = new LinkedHashMap<>();
+        for (ImportRecord record : chunk) {
+            if (record.status == null && candidates.putIfAbsent(record.user.getUsername(), record) != null)
+                record.reject(ImportStatus.TAKEN, null);
+        }
+        if (candidates.isEmpty())
+            return;
+
+        Set<String> existing = sharded
+                ? StreamSupport.stream(userRepository.findAllById(candidates.keySet()).spliterator(), false)
+                        .map(User::getUsername).collect(Collectors.toSet())
+                : dsl.select(USERNAME).from(USERS).where(USERNAME.in(candidates.keySet())).fetchSet(USERNAME);
+        for (String username : existing)
+            candidates.remove(username).reject(ImportStatus.TAKEN, null);
+        if (candidates.isEmpty())
+            return;
+
+        List<ImportRecord> records = new ArrayList<>(candidates.values());
+        hashingPool.submit(() -> records.parallelStream()
+                .forEach(record -> record.user.setPwd(passwordEncoder.encode(record.user.getPwd()))))
+                .join();
+
+        insert(records);
+        for (ImportRecord record : records) {
+            if (record.status == ImportStatus.CREATED)
+                eventPublisher.publishEvent(UserChangedEvent.logged(record.user.getUsername(), record.user.getPwd()));
+        }
+    }
+
+    /* One batched statement per chunk, with the chunk's change log rows in the same transaction; if a concurrent
+     * registration took one of the names in the meantime the batch rolls back and the chunk is retried row by row to
+     * find out which, then the rows that went in are logged as one batch.
+     */
+    private void insert(List<ImportRecord> records) {
+        if (sharded) {
+            insertEach(records, user -> userRepository.insert(user.getUsername(), user.getPwd()));
+            return;
+        }
+
+        List<User> users = new ArrayList<>(records.size());
+        records.forEach(record -> users.add(record.user));
+        try {
+            dsl.transaction(configuration -> {
+                DSLContext tx = DSL.using(configuration);
+                BatchBindStep batch = tx.batch(tx.insertInto(USERS, USERNAME, PWD).values((String) null, null));
+                for (User user : users)
+                    batch.bind(user.getUsername(), user.getPwd());
+                batch.execute();
+                userChangelog.append(tx, users);
+            });
+            records.forEach(record -> record.status = ImportStatus.CREATED);
+        } catch (DataIntegrityViolationException e) {
+            insertEach(records, user -> dsl.insertInto(USERS, USERNAME, PWD).values(user.getUsername(), user.getPwd()).execute());
+        }
+    }
+
+    private void insertEach(List<ImportRecord> records, Consumer<User> insert) {
+        List<User> users = new ArrayList<>(records.size());
+        for (ImportRecord record : records) {
+            try {
+                insert.accept(record.user);
+                record.status = ImportStatus.CREATED;
+                users.add(record.user);
+            } catch (DataIntegrityViolationException duplicate) {
+                record.reject(ImportStatus.TAKEN, null);
+            }
+        }
+        userChangelog.append(dsl, users);
+    }
+
+    private void write(JsonGenerator generator, List<ImportRecord> chunk) throws IOException {
+        for (ImportRecord record : chunk) {
+            String username = record.user == null ? null : record.user.getUsername();
+            generator.writeObject(new UserImportResultDTO(record.line, username, record.status, record.message));
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+}
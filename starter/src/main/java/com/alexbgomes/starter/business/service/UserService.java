@@ -1,129 +1,293 @@
 package com.alexbgomes.starter.business.service;
 
+import com.alexbgomes.starter.business.cache.CachedUserPage;
+import com.alexbgomes.starter.business.cache.UserCache;
+import com.alexbgomes.starter.business.cache.UserPageCache;
+import com.alexbgomes.starter.business.cache.UsernameIndex;
+import com.alexbgomes.starter.business.domain.ResponseMessages;
+import com.alexbgomes.starter.business.domain.UserChangedEvent;
 import com.alexbgomes.starter.business.domain.ValidationLevel;
+import com.alexbgomes.starter.business.metrics.UserApiMetrics;
+import com.alexbgomes.starter.business.metrics.UserApiMetrics.Endpoint;
+import com.alexbgomes.starter.business.metrics.UserApiMetrics.Stage;
+import com.alexbgomes.starter.business.session.SessionTokenService;
+import com.alexbgomes.starter.business.validation.UserValidator;
+import com.alexbgomes.starter.config.UserSearchProperties;
+import com.alexbgomes.starter.config.UsersProperties;
+import com.alexbgomes.starter.data.datasource.ReplicaRoutingDataSource;
+import com.alexbgomes.starter.data.dto.UserSummaryDTO;
 import com.alexbgomes.starter.data.entity.User;
 import com.alexbgomes.starter.data.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
-/* TODO: Remove validation from here into Custom Validator, preserve messages to return
- */
 @Service
 public class UserService {
+    private static final ResponseEntity<String> PASSWORD_INCORRECT = new ResponseEntity<>(ResponseMessages.PASSWORD_INCORRECT, HttpStatus.NOT_FOUND);
+    private static final ResponseEntity<String> USER_CREATED = new ResponseEntity<>(ResponseMessages.USER_CREATED, HttpStatus.CREATED);
+
     private final UserRepository userRepository;
-    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final UserValidator userValidator;
+    private final UserCache userCache;
+    private final UserPageCache userPageCache;
+    private final UsernameIndex usernameIndex;
+    private final PasswordHasher passwordHasher;
+    private final CredentialVerifier credentialVerifier;
+    private final BlockingIoExecutor blockingIoExecutor;
+    private final GroupCommitWriter groupCommitWriter;
+    private final ReadRouting readRouting;
+    private final SessionTokenService sessionTokenService;
+    private final UserApiMetrics userApiMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UsersProperties usersProperties;
+    private final UserSearchProperties userSearchProperties;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, UserValidator userValidator, UserCache userCache, UserPageCache userPageCache, UsernameIndex usernameIndex,
+                       PasswordHasher passwordHasher, CredentialVerifier credentialVerifier, BlockingIoExecutor blockingIoExecutor, GroupCommitWriter groupCommitWriter, ReadRouting readRouting, SessionTokenService sessionTokenService, UserApiMetrics userApiMetrics,
+                       ApplicationEventPublisher eventPublisher, UsersProperties usersProperties, UserSearchProperties userSearchProperties, ObjectMapper objectMapper) {
         this.userRepository = userRepository;
-        bCryptPasswordEncoder = new BCryptPasswordEncoder();
+        this.userValidator = userValidator;
+        this.userCache = userCache;
+        this.userPageCache = userPageCache;
+        this.usernameIndex = usernameIndex;
+        this.passwordHasher = passwordHasher;
+        this.credentialVerifier = credentialVerifier;
+        this.blockingIoExecutor = blockingIoExecutor;
+        this.groupCommitWriter = groupCommitWriter;
+        this.readRouting = readRouting;
+        this.sessionTokenService = sessionTokenService;
+        this.userApiMetrics = userApiMetrics;
+        this.eventPublisher = eventPublisher;
+        this.usersProperties = usersProperties;
+        this.userSearchProperties = userSearchProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    private int pageSize(Integer limit) {
+        int pageSize = limit == null ? usersProperties.getDefaultPageSize() : limit;
+        return Math.max(1, Math.min(pageSize, usersProperties.getMaxPageSize()));
     }
 
-    public List<User> getUsers() {
-        return userRepository.findAll();
+    public List<UserSummaryDTO> getUsers(String after, Integer limit) {
+        return readRouting.read(() -> userRepository.findPageAfter(after, pageSize(limit)));
     }
 
-    private Optional<User> getUserByUsername(String username) {
-        return userRepository.findById(username);
+    /* The page already serialized, from the page cache while the table version is unchanged. Loaded from the primary:
+     * a lagging replica's page would be cached under a version newer than its contents until the next write.
+     */
+    public CachedUserPage getUsersPage(String after, Integer limit) {
+        int pageSize = pageSize(limit);
+        return userPageCache.get(after, pageSize, () -> {
+            try {
+                return objectMapper.writeValueAsBytes(ReplicaRoutingDataSource.readFromPrimary(() -> userRepository.findPageAfter(after, pageSize)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        });
     }
 
-    private String userNotFoundString(User user) {
-        return String.format("User %s not found.", user.getUsername());
+    public List<UserSummaryDTO> searchUsers(String prefix, Integer limit) {
+        int resultSize = limit == null ? userSearchProperties.getDefaultLimit() : limit;
+        resultSize = Math.max(1, Math.min(resultSize, userSearchProperties.getMaxLimit()));
+        return usernameIndex.search(prefix, resultSize).stream()
+                .map(UserSummaryDTO::new)
+                .collect(Collectors.toList());
     }
 
-    private ValidationLevel validate(User user, boolean login) {
-        if (login) {
-            if (getUserByUsername(user.getUsername()).isEmpty())
-                return ValidationLevel.USERNOTFOUND;
-        } else {
-            if (getUserByUsername(user.getUsername()).isPresent())
-                return ValidationLevel.USERTAKEN;
+    public void streamUsers(String after, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(null);
+        try {
+            readRouting.read(() -> {
+                userRepository.forEachAfter(after, summary -> {
+                    try {
+                        generator.writeObject(summary);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
+        generator.flush();
+    }
+
+    private Optional<ResponseEntity<String>> validate(Endpoint endpoint, User user) {
+        long start = System.nanoTime();
+        ValidationLevel level = userValidator.validateFormat(user.getUsername(), user.getPwd());
+        userApiMetrics.record(endpoint, Stage.VALIDATION, level.name(), start);
+        return userValidator.getResponse(level, user.getUsername());
+    }
 
-        if (user.getUsername().length() < 8 || user.getUsername().length() > 30)
-            return ValidationLevel.USERLEN;
+    /* Register, unregister and login act on this answer, so it never comes from a replica that may lag: UserCache
+     * reads and fills from the primary only, and replicas serve the listings alone.
+     */
+    private Optional<String> getStoredPwd(Endpoint endpoint, String username) {
+        long start = System.nanoTime();
+        Optional<String> storedPwd = userCache.getPwd(username);
+        userApiMetrics.record(endpoint, Stage.REPOSITORY, storedPwd.isPresent() ? "found" : "absent", start);
+        return storedPwd;
+    }
 
-        if (!Pattern.matches("^[a-zA-Z0-9]+$", user.getUsername()))
-            return ValidationLevel.USERINVALID;
+    public CompletableFuture<ResponseEntity<String>> loginUser(User user) {
+        Optional<ResponseEntity<String>> invalidResponse = validate(Endpoint.LOGIN, user);
+        if (invalidResponse.isPresent())
+            return CompletableFuture.completedFuture(invalidResponse.get());
 
-        if (user.getPwd().length() < 10 || user.getPwd().length() > 18)
-            return ValidationLevel.PASSLEN;
+        return CompletableFuture.supplyAsync(() -> getStoredPwd(Endpoint.LOGIN, user.getUsername()), blockingIoExecutor).thenCompose(storedPwd -> {
+            if (storedPwd.isEmpty())
+                return CompletableFuture.completedFuture(userValidator.userNotFound(user.getUsername()));
 
-        if (!Pattern.matches("^(?=.*[A-Za-z])(?=.*\\d)(?=.*[@$!%*#?&])[A-Za-z\\d@$!%*#?&]+$", user.getPwd()))
-            return ValidationLevel.PASSINVALID;
+            long hashStart = System.nanoTime();
+            return credentialVerifier.matches(user.getUsername(), user.getPwd(), storedPwd.get()).thenCompose(matches -> {
+                userApiMetrics.record(Endpoint.LOGIN, Stage.HASHING, matches ? "match" : "mismatch", hashStart);
+                if (!matches)
+                    return CompletableFuture.completedFuture(PASSWORD_INCORRECT);
 
-        return ValidationLevel.CLEAR;
+                CompletableFuture<String> currentPwd = passwordHasher.needsRehash(storedPwd.get())
+                        ? rehash(user, storedPwd.get())
+                        : CompletableFuture.completedFuture(storedPwd.get());
+                return currentPwd.thenApply(pwd -> {
+                    long responseStart = System.nanoTime();
+                    ResponseEntity<String> response = ResponseEntity.ok()
+                            .header(SessionTokenService.TOKEN_HEADER, sessionTokenService.issue(user.getUsername(), pwd))
+                            .body("User " + user.getUsername() + " logged in at " + LocalDateTime.now() + ".");
+                    userApiMetrics.record(Endpoint.LOGIN, Stage.RESPONSE, UserApiMetrics.OUTCOME_OK, responseStart);
+                    return response;
+                });
+            });
+        });
     }
 
-    public Optional<ResponseEntity<String>> getResponseIfInvalid(User user) {
-        return getResponseIfInvalid(user, false);
+    /* Re-encodes a legacy or weaker hash with the current encoder once the raw password is known, and completes
+     * with the hash now stored so the session token is signed against it. The new hash only replaces the one that
+     * was matched: a row removed or changed meanwhile is left alone and the old hash is returned. A saturated pool
+     * keeps the old hash and defers the upgrade to the next login.
+     */
+    private CompletableFuture<String> rehash(User user, String storedPwd) {
+        try {
+            return passwordHasher.encode(user.getPwd()).thenApplyAsync(encodedPwd -> {
+                if (userRepository.updatePwd(user.getUsername(), storedPwd, encodedPwd) != 1)
+                    return storedPwd;
+                eventPublisher.publishEvent(new UserChangedEvent(user.getUsername(), encodedPwd));
+                return encodedPwd;
+            }, blockingIoExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(storedPwd);
+        }
     }
 
-    public Optional<ResponseEntity<String>> getResponseIfInvalid(User user, boolean login) {
-        Optional<ResponseEntity<String>> result = Optional.empty();
-
-        switch (validate(user, login)) {
-            case USERTAKEN:
-                result = Optional.of(new ResponseEntity<>(String.format("Username %s is already taken.", user.getUsername()), HttpStatus.CONFLICT));
-                break;
-            case USERNOTFOUND:
-                result = Optional.of(new ResponseEntity<>(userNotFoundString(user), HttpStatus.NOT_FOUND));
-                break;
-            case USERLEN:
-                result = Optional.of(new ResponseEntity<>("Username must be at least 8 characters and at most 30 characters.", HttpStatus.BAD_REQUEST));
-                break;
-            case PASSLEN:
-                result = Optional.of(new ResponseEntity<>("Password must be at least 10 characters and at most 18 characters.", HttpStatus.BAD_REQUEST));
-                break;
-            case USERINVALID:
-                result = Optional.of(new ResponseEntity<>("Username must be alphanumeric only.", HttpStatus.BAD_REQUEST));
-                break;
-            case PASSINVALID:
-                result = Optional.of(new ResponseEntity<>("Password must contain an uppercase, a lowercase, a number, and a special character.", HttpStatus.BAD_REQUEST));
-                break;
-            case CLEAR:
-                break;
-        }
+    public CompletableFuture<ResponseEntity<String>> setUser(User user) {
+        Optional<ResponseEntity<String>> invalidResponse = validate(Endpoint.REGISTER, user);
+        if (invalidResponse.isPresent())
+            return CompletableFuture.completedFuture(invalidResponse.get());
+
+        return CompletableFuture.supplyAsync(() -> getStoredPwd(Endpoint.REGISTER, user.getUsername()), blockingIoExecutor).thenCompose(storedPwd -> {
+            if (storedPwd.isPresent())
+                return CompletableFuture.completedFuture(userValidator.getResponse(ValidationLevel.USERTAKEN, user.getUsername()).get());
+
+            long hashStart = System.nanoTime();
+            return passwordHasher.encode(user.getPwd()).thenCompose(encodedPwd -> {
+                userApiMetrics.record(Endpoint.REGISTER, Stage.HASHING, "encoded", hashStart);
+                user.setPwd(encodedPwd);
 
-        return result;
+                long saveStart = System.nanoTime();
+                return insert(user).thenApply(created -> {
+                    userApiMetrics.record(Endpoint.REGISTER, Stage.REPOSITORY, created ? "saved" : "taken", saveStart);
+                    if (!created) {
+                        userCache.onTaken(user.getUsername());
+                        return userValidator.getResponse(ValidationLevel.USERTAKEN, user.getUsername()).get();
+                    }
+
+                    eventPublisher.publishEvent(new UserChangedEvent(user.getUsername(), user.getPwd()));
+                    return USER_CREATED;
+                });
+            });
+        });
     }
 
-    public ResponseEntity<String> loginUser(User user) {
-        Optional<User> thisExistingUser = getUserByUsername(user.getUsername());
-        if (thisExistingUser.isPresent()) {
-            if (bCryptPasswordEncoder.matches(user.getPwd(), thisExistingUser.get().getPwd())) {
-                return new ResponseEntity<>(String.format("User %s logged in at %s.", user.getUsername(), LocalDateTime.now()), HttpStatus.OK);
-            } else {
-                return new ResponseEntity<>("Password is incorrect.", HttpStatus.NOT_FOUND);
+    /* The cached lookup above only saves the hash for names known to be taken; a stale negative must never let a
+     * registration replace an existing row, so the row goes in with a plain INSERT and a duplicate key is the answer.
+     * Hands the row to the group commit stage when enabled, which inserts the same way in batches.
+     */
+    private CompletableFuture<Boolean> insert(User user) {
+        if (groupCommitWriter.isEnabled())
+            return groupCommitWriter.insert(user);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                userRepository.insert(user.getUsername(), user.getPwd());
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                return false;
             }
-        }
-        return new ResponseEntity<>(userNotFoundString(user), HttpStatus.NOT_FOUND);
+        }, blockingIoExecutor);
     }
 
-    public ResponseEntity<String> setUser(User user) {
-        user.setPwd(bCryptPasswordEncoder.encode(user.getPwd()));
-        userRepository.save(user);
-        return new ResponseEntity<>("New user created.", HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<String>> rmUser(User user) {
+        Optional<ResponseEntity<String>> invalidResponse = validate(Endpoint.UNREGISTER, user);
+        if (invalidResponse.isPresent())
+            return CompletableFuture.completedFuture(invalidResponse.get());
+
+        return CompletableFuture.supplyAsync(() -> getStoredPwd(Endpoint.UNREGISTER, user.getUsername()), blockingIoExecutor).thenCompose(storedPwd -> {
+            if (storedPwd.isEmpty())
+                return CompletableFuture.completedFuture(userValidator.userNotFound(user.getUsername()));
+
+            long hashStart = System.nanoTime();
+            return credentialVerifier.matches(user.getUsername(), user.getPwd(), storedPwd.get()).thenApplyAsync(matches -> {
+                userApiMetrics.record(Endpoint.UNREGISTER, Stage.HASHING, matches ? "match" : "mismatch", hashStart);
+                if (!matches)
+                    return PASSWORD_INCORRECT;
+
+                long deleteStart = System.nanoTime();
+                boolean removed = userRepository.deleteByUsername(user.getUsername()) > 0;
+                userApiMetrics.record(Endpoint.UNREGISTER, Stage.REPOSITORY, removed ? "deleted" : "absent", deleteStart);
+
+                eventPublisher.publishEvent(UserChangedEvent.removed(user.getUsername()));
+                if (!removed)
+                    return userValidator.userNotFound(user.getUsername());
+
+                long responseStart = System.nanoTime();
+                ResponseEntity<String> response = new ResponseEntity<>("User " + user.getUsername() + " removed.", HttpStatus.OK);
+                userApiMetrics.record(Endpoint.UNREGISTER, Stage.RESPONSE, UserApiMetrics.OUTCOME_OK, responseStart);
+                return response;
+            }, blockingIoExecutor);
+        });
     }
 
-    public ResponseEntity<String> rmUser(User user) {
-        Optional<User> thisExistingUser = getUserByUsername(user.getUsername());
-        if (thisExistingUser.isPresent()) {
-            if (bCryptPasswordEncoder.matches(user.getPwd(), thisExistingUser.get().getPwd())) {
-                userRepository.deleteById(user.getUsername());
-                return new ResponseEntity<>(String.format("User %s removed.", user.getUsername()), HttpStatus.OK);
-            } else {
-                return new ResponseEntity<>("Password is incorrect.", HttpStatus.NOT_FOUND);
-            }
-        }
-        return new ResponseEntity<>(userNotFoundString(user), HttpStatus.NOT_FOUND);
+    /* Unregister for a caller already authenticated by session token, so there is no password to check */
+    public CompletableFuture<ResponseEntity<String>> rmUser(String username) {
+        return CompletableFuture.supplyAsync(() -> {
+            long deleteStart = System.nanoTime();
+            boolean removed = userRepository.deleteByUsername(username) > 0;
+            userApiMetrics.record(Endpoint.UNREGISTER, Stage.REPOSITORY, removed ? "deleted" : "absent", deleteStart);
+
+            eventPublisher.publishEvent(UserChangedEvent.removed(username));
+            if (!removed)
+                return userValidator.userNotFound(username);
+
+            return new ResponseEntity<>("User " + username + " removed.", HttpStatus.OK);
+        }, blockingIoExecutor);
     }
 }
@@ -0,0 +1,139 @@
+package com.alexbgomes.starter.business.service;
+
+import com.alexbgomes.starter.business.validation.UserValidator;
+import com.alexbgomes.starter.config.UsersProperties;
+import com.alexbgomes.starter.config.WarmupProperties;
+import com.alexbgomes.starter.data.dto.UserDTO;
+import com.alexbgomes.starter.data.entity.User;
+import com.alexbgomes.starter.data.mapper.UserMapper;
+import com.alexbgomes.starter.data.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/* Runs the request hot paths with synthetic users before the instance takes traffic. Application runners finish
+ * before Spring Boot publishes ReadinessState.ACCEPTING_TRAFFIC, so /actuator/health/readiness stays out of
+ * service until this returns. Nothing is written: usernames are synthetic and only read through the repository,
+ * bypassing the user cache so it is not filled with names that will never be asked for.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "starter.warmup", name = "enabled", havingValue = "true")
+public class UserWarmup implements ApplicationRunner {
+    private static final String USERNAME_PREFIX = "warmupuser";
+    private static final String PWD = "W@rmup-pass1";
+    private static final int SAMPLE = 100;
+
+    private final UserValidator userValidator;
+    private final UserMapper userMapper;
+    private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+    private final ObjectMapper objectMapper;
+    private final UsersProperties usersProperties;
+    private final WarmupProperties properties;
+
+    @Getter
+    private volatile Report report;
+
+    @Autowired
+    public UserWarmup(UserValidator userValidator, UserMapper userMapper, UserRepository userRepository, PasswordHasher passwordHasher,
+                      ObjectMapper objectMapper, UsersProperties usersProperties, WarmupProperties properties, MeterRegistry meterRegistry) {
+        this.userValidator = userValidator;
+        this.userMapper = userMapper;
+        this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.objectMapper = objectMapper;
+        this.usersProperties = usersProperties;
+        this.properties = properties;
+        Gauge.builder("users.warmup.duration", this, warmup -> warmup.report == null ? Double.NaN : warmup.report.getDurationMillis())
+                .baseUnit("milliseconds").register(meterRegistry);
+        Gauge.builder("users.warmup.latency", this, warmup -> warmup.report == null ? Double.NaN : warmup.report.getFirstRequestMicros())
+                .baseUnit("microseconds").tag("path", "request").tag("phase", "before").register(meterRegistry);
+        Gauge.builder("users.warmup.latency", this, warmup -> warmup.report == null ? Double.NaN : warmup.report.getLastRequestMicros())
+                .baseUnit("microseconds").tag("path", "request").tag("phase", "after").register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + properties.getMaxDuration().toNanos();
+
+        long[] requests = new long[properties.getIterations()];
+        int requestCount = 0;
+        while (requestCount < requests.length && System.nanoTime() < deadline) {
+            long opStart = System.nanoTime();
+            exerciseRequestPath(requestCount);
+            requests[requestCount++] = System.nanoTime() - opStart;
+        }
+
+        long[] hashes = new long[properties.getHashingIterations()];
+        int hashCount = 0;
+        if (hashes.length > 0 && System.nanoTime() < deadline) {
+            String encodedPwd = passwordHasher.encode(PWD).join();
+            while (hashCount < hashes.length && System.nanoTime() < deadline) {
+                long opStart = System.nanoTime();
+                passwordHasher.matches(PWD, encodedPwd).join();
+                hashes[hashCount++] = System.nanoTime() - opStart;
+            }
+        }
+
+        report = new Report((System.nanoTime() - start) / 1_000_000, requestCount, hashCount,
+                averageMicros(requests, 0, Math.min(SAMPLE, requestCount)),
+                averageMicros(requests, Math.max(0, requestCount - SAMPLE), requestCount),
+                hashCount == 0 ? Double.NaN : hashes[0] / 1_000.0,
+                hashCount == 0 ? Double.NaN : hashes[hashCount - 1] / 1_000.0);
+        log.info("Warm-up finished in {} ms: {} request passes ({} us avg first {} -> {} us avg last {}), {} BCrypt checks ({} us first -> {} us last)",
+                report.getDurationMillis(), requestCount, String.format("%.1f", report.getFirstRequestMicros()), SAMPLE,
+                String.format("%.1f", report.getLastRequestMicros()), SAMPLE, hashCount,
+                String.format("%.0f", report.getFirstHashMicros()), String.format("%.0f", report.getLastHashMicros()));
+    }
+
+    private void exerciseRequestPath(int i) throws IOException {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setUsername(USERNAME_PREFIX + i);
+        userDTO.setPwd(PWD);
+        userDTO = objectMapper.readValue(objectMapper.writeValueAsBytes(userDTO), UserDTO.class);
+
+        User user = userMapper.toEntity(userDTO);
+        userValidator.getResponse(userValidator.validateFormat(user.getUsername(), user.getPwd()), user.getUsername());
+        userRepository.findById(userDTO.getUsername());
+        if (i % 10 == 0)
+            objectMapper.writeValueAsBytes(userRepository.findPageAfter(null, usersProperties.getDefaultPageSize()));
+    }
+
+    private static double averageMicros(long[] nanos, int from, int to) {
+        return from >= to ? Double.NaN : Arrays.stream(nanos, from, to).average().orElse(Double.NaN) / 1_000.0;
+    }
+
+    @Getter
+    public static class Report {
+        private final long durationMillis;
+        private final int requestIterations;
+        private final int hashingIterations;
+        private final double firstRequestMicros;
+        private final double lastRequestMicros;
+        private final double firstHashMicros;
+        private final double lastHashMicros;
+
+        Report(long durationMillis, int requestIterations, int hashingIterations, double firstRequestMicros, double lastRequestMicros,
+               double firstHashMicros, double lastHashMicros) {
+            this.durationMillis = durationMillis;
+            this.requestIterations = requestIterations;
+            this.hashingIterations = hashingIterations;
+            this.firstRequestMicros = firstRequestMicros;
+            this.lastRequestMicros = lastRequestMicros;
+            this.firstHashMicros = firstHashMicros;
+            this.lastHashMicros = lastHashMicros;
+        }
+    }
+}
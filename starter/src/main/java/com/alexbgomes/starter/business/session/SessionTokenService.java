@@ -0,0 +1,114 @@
+package com.alexbgomes.starter.business.session;
+
+import com.alexbgomes.starter.business.cache.UserCache;
+import com.alexbgomes.starter.config.SessionTokenProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+/* Stateless session tokens: base64url(username).expiry.base64url(fingerprint).base64url(signature), where the
+ * fingerprint is a truncated HMAC of the stored password hash and the signature an HMAC over the three fields before it.
+ * The fingerprint is the per-user version: once the user is removed or the hash changes, every token issued before no
+ * longer verifies, with no token store or blacklist. Verification checks the signature first, so a forged or tampered
+ * token is turned away before any lookup; only a genuine one costs a read of the stored hash, through the cache that
+ * writes on this node keep current and that only the primary fills. Authenticated calls skip BCrypt entirely.
+ */
+@Slf4j
+@Component
+public class SessionTokenService {
+    public static final String TOKEN_HEADER = "X-Auth-Token";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final byte FINGERPRINT = 0;
+    private static final byte SIGNATURE = 1;
+    private static final int FINGERPRINT_BYTES = 16;
+
+    private final UserCache userCache;
+    private final Duration ttl;
+    private final ThreadLocal<Mac> mac;
+
+    @Autowired
+    public SessionTokenService(UserCache userCache, SessionTokenProperties properties) throws GeneralSecurityException {
+        this.userCache = userCache;
+        this.ttl = properties.getTtl();
+
+        byte[] secret;
+        if (properties.getSecret().isEmpty()) {
+            log.warn("starter.session.token.secret is not set, using a random key; tokens will not survive a restart or work across nodes");
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        } else {
+            secret = Base64.getDecoder().decode(properties.getSecret());
+        }
+        SecretKeySpec key = new SecretKeySpec(secret, ALGORITHM);
+        Mac prototype = Mac.getInstance(ALGORITHM);
+        prototype.init(key);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    public String issue(String username, String storedPwd) {
+        String payload = ENCODER.encodeToString(username.getBytes(StandardCharsets.UTF_8)) + "." + (System.currentTimeMillis() / 1000 + ttl.toSeconds())
+                + "." + ENCODER.encodeToString(fingerprint(storedPwd));
+        return payload + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    /* The username the token was issued to, if it is well formed, signed by us, unexpired and still matches the stored hash */
+    public Optional<String> verify(String token) {
+        int expirySeparator = token.indexOf('.');
+        int fingerprintSeparator = token.indexOf('.', expirySeparator + 1);
+        int signatureSeparator = token.indexOf('.', fingerprintSeparator + 1);
+        if (expirySeparator < 0 || fingerprintSeparator < 0 || signatureSeparator < 0)
+            return Optional.empty();
+
+        try {
+            byte[] signature = DECODER.decode(token.substring(signatureSeparator + 1));
+            if (!MessageDigest.isEqual(sign(token.substring(0, signatureSeparator)), signature))
+                return Optional.empty();
+
+            long expiry = Long.parseLong(token, expirySeparator + 1, fingerprintSeparator, 10);
+            if (System.currentTimeMillis() / 1000 >= expiry)
+                return Optional.empty();
+
+            String username = new String(DECODER.decode(token.substring(0, expirySeparator)), StandardCharsets.UTF_8);
+            Optional<String> storedPwd = userCache.getPwd(username);
+            if (storedPwd.isEmpty())
+                return Optional.empty();
+
+            byte[] fingerprint = DECODER.decode(token.substring(fingerprintSeparator + 1, signatureSeparator));
+            return MessageDigest.isEqual(fingerprint(storedPwd.get()), fingerprint) ? Optional.of(username) : Optional.empty();
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /* The leading byte keeps fingerprints and signatures apart under the one key */
+    private byte[] fingerprint(String storedPwd) {
+        Mac mac = this.mac.get();
+        mac.update(FINGERPRINT);
+        return Arrays.copyOf(mac.doFinal(storedPwd.getBytes(StandardCharsets.UTF_8)), FINGERPRINT_BYTES);
+    }
+
+    private byte[] sign(String payload) {
+        Mac mac = this.mac.get();
+        mac.update(SIGNATURE);
+        return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
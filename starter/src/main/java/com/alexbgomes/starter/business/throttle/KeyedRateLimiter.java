@@ -0,0 +1,46 @@
+package com.alexbgomes.starter.business.throttle;
+
+import com.alexbgomes.starter.config.LoginThrottleProperties.Limit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Token buckets in GCRA form: each key holds a single theoretical arrival time in an AtomicLong and an attempt
+ * is one CAS, so concurrent callers never block each other. A bucket that has been idle for burst * interval is
+ * indistinguishable from a new one, which is what lets Caffeine evict idle keys without changing any decision.
+ */
+class KeyedRateLimiter {
+    private final long origin = System.nanoTime();
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    KeyedRateLimiter(Limit limit, long maximumKeys) {
+        this.intervalNanos = limit.getInterval().toNanos();
+        this.toleranceNanos = (Math.max(limit.getBurst(), 1) - 1) * intervalNanos;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(Duration.ofNanos(toleranceNanos + intervalNanos))
+                .build();
+    }
+
+    /* Returns zero when the attempt is allowed, otherwise the nanos until the next one would be */
+    long tryAcquire(String key) {
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong());
+        long now = System.nanoTime() - origin;
+        for (;;) {
+            long tat = bucket.get();
+            long allowedAt = Math.max(tat, now) - toleranceNanos;
+            if (allowedAt > now)
+                return allowedAt - now;
+            if (bucket.compareAndSet(tat, Math.max(tat, now) + intervalNanos))
+                return 0;
+        }
+    }
+
+    long estimatedSize() {
+        return buckets.estimatedSize();
+    }
+}
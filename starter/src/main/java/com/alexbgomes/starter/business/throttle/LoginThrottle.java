@@ -0,0 +1,67 @@
+package com.alexbgomes.starter.business.throttle;
+
+import com.alexbgomes.starter.business.validation.UserValidator;
+import com.alexbgomes.starter.config.LoginThrottleProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/* Rate limits credential checks per client address and per username before any lookup or hashing is done,
+ * so a brute-force run costs us a CAS instead of a BCrypt verification. The address is checked first, which
+ * keeps a single client spraying many usernames from filling the username limiter. Behind the load balancer the
+ * address is the client's, resolved from X-Forwarded-For by server.forward-headers-strategy=native. Only
+ * well-formed usernames become keys, so the username limiter holds at most 30 chars per key; a malformed one is
+ * turned away by validation right after, before any lookup.
+ */
+@Component
+public class LoginThrottle {
+    private final boolean enabled;
+    private final UserValidator userValidator;
+    private final KeyedRateLimiter addressLimiter;
+    private final KeyedRateLimiter usernameLimiter;
+    private final Counter addressRejections;
+    private final Counter usernameRejections;
+
+    @Autowired
+    public LoginThrottle(LoginThrottleProperties properties, UserValidator userValidator, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.userValidator = userValidator;
+        this.addressLimiter = new KeyedRateLimiter(properties.getAddress(), properties.getMaximumKeys());
+        this.usernameLimiter = new KeyedRateLimiter(properties.getUsername(), properties.getMaximumKeys());
+        this.addressRejections = rejections(meterRegistry, "address");
+        this.usernameRejections = rejections(meterRegistry, "username");
+        Gauge.builder("users.throttle.keys", addressLimiter, KeyedRateLimiter::estimatedSize).tag("key", "address").register(meterRegistry);
+        Gauge.builder("users.throttle.keys", usernameLimiter, KeyedRateLimiter::estimatedSize).tag("key", "username").register(meterRegistry);
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("users.throttle.rejected")
+                .description("Credential checks rejected by the login throttle")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    public void acquire(String address, String username) {
+        if (!enabled)
+            return;
+
+        if (address != null) {
+            long wait = addressLimiter.tryAcquire(address);
+            if (wait > 0) {
+                addressRejections.increment();
+                throw new LoginThrottledException(Duration.ofNanos(wait));
+            }
+        }
+        if (userValidator.isWellFormedUsername(username)) {
+            long wait = usernameLimiter.tryAcquire(username);
+            if (wait > 0) {
+                usernameRejections.increment();
+                throw new LoginThrottledException(Duration.ofNanos(wait));
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.alexbgomes.starter.business.throttle;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class LoginThrottledException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public LoginThrottledException(Duration retryAfter) {
+        super("Too many attempts, retry after " + retryAfter);
+        this.retryAfter = retryAfter;
+    }
+}
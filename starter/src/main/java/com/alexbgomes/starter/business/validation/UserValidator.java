@@ -0,0 +1,128 @@
+package com.alexbgomes.starter.business.validation;
+
+import com.alexbgomes.starter.business.domain.ResponseMessages;
+import com.alexbgomes.starter.business.domain.ValidationLevel;
+import com.alexbgomes.starter.data.entity.User;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/* Format checks allocate nothing and never touch the database; callers only look the user up once these pass.
+ * Fixed messages are built once, only the username-bearing ones are assembled per call.
+ */
+@Component
+public class UserValidator {
+    private static final int USERNAME_MIN_LENGTH = 8;
+    private static final int USERNAME_MAX_LENGTH = 30;
+    private static final int PWD_MIN_LENGTH = 10;
+    private static final int PWD_MAX_LENGTH = 18;
+
+    private static final Map<ValidationLevel, Optional<ResponseEntity<String>>> RESPONSES = new EnumMap<>(ValidationLevel.class);
+
+    static {
+        RESPONSES.put(ValidationLevel.USERLEN, badRequest(ResponseMessages.USERLEN));
+        RESPONSES.put(ValidationLevel.PASSLEN, badRequest(ResponseMessages.PASSLEN));
+        RESPONSES.put(ValidationLevel.USERINVALID, badRequest(ResponseMessages.USERINVALID));
+        RESPONSES.put(ValidationLevel.PASSINVALID, badRequest(ResponseMessages.PASSINVALID));
+        RESPONSES.put(ValidationLevel.CLEAR, Optional.empty());
+    }
+
+    private static Optional<ResponseEntity<String>> badRequest(String message) {
+        return Optional.of(new ResponseEntity<>(message, HttpStatus.BAD_REQUEST));
+    }
+
+    private static boolean isAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isSpecial(char c) {
+        switch (c) {
+            case '@':
+            case '$':
+            case '!':
+            case '%':
+            case '*':
+            case '#':
+            case '?':
+            case '&':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /* Same rules as ^[a-zA-Z0-9]+$ and ^(?=.*[A-Za-z])(?=.*\d)(?=.*[@$!%*#?&])[A-Za-z\d@$!%*#?&]+$
+     */
+    public ValidationLevel validateFormat(String username, String pwd) {
+        ValidationLevel usernameLevel = validateUsername(username);
+        if (usernameLevel != ValidationLevel.CLEAR)
+            return usernameLevel;
+
+        if (pwd == null || pwd.length() < PWD_MIN_LENGTH || pwd.length() > PWD_MAX_LENGTH)
+            return ValidationLevel.PASSLEN;
+
+        boolean letter = false;
+        boolean digit = false;
+        boolean special = false;
+        for (int i = 0; i < pwd.length(); i++) {
+            char c = pwd.charAt(i);
+            if (isLetter(c)) {
+                letter = true;
+            } else if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (isSpecial(c)) {
+                special = true;
+            } else {
+                return ValidationLevel.PASSINVALID;
+            }
+        }
+
+        if (!letter || !digit || !special)
+            return ValidationLevel.PASSINVALID;
+
+        return ValidationLevel.CLEAR;
+    }
+
+    private static ValidationLevel validateUsername(String username) {
+        if (username == null || username.length() < USERNAME_MIN_LENGTH || username.length() > USERNAME_MAX_LENGTH)
+            return ValidationLevel.USERLEN;
+
+        for (int i = 0; i < username.length(); i++) {
+            if (!isAlphanumeric(username.charAt(i)))
+                return ValidationLevel.USERINVALID;
+        }
+        return ValidationLevel.CLEAR;
+    }
+
+    /* The username half of validateFormat, for callers that keep usernames before the full check runs */
+    public boolean isWellFormedUsername(String username) {
+        return validateUsername(username) == ValidationLevel.CLEAR;
+    }
+
+    public Optional<ResponseEntity<String>> getResponseIfInvalid(User user) {
+        return getResponse(validateFormat(user.getUsername(), user.getPwd()), user.getUsername());
+    }
+
+    public Optional<ResponseEntity<String>> getResponse(ValidationLevel level, String username) {
+        switch (level) {
+            case USERTAKEN:
+                return Optional.of(new ResponseEntity<>("Username " + username + " is already taken.", HttpStatus.CONFLICT));
+            case USERNOTFOUND:
+                return Optional.of(userNotFound(username));
+            default:
+                return RESPONSES.get(level);
+        }
+    }
+
+    public ResponseEntity<String> userNotFound(String username) {
+        return new ResponseEntity<>("User " + username + " not found.", HttpStatus.NOT_FOUND);
+    }
+}
@@ -0,0 +1,27 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.users.credentials")
+public class CredentialCheckProperties {
+    /* Identical checks already running are joined instead of hashed again */
+    private boolean singleFlight = true;
+    private VerifiedCache verifiedCache = new VerifiedCache();
+
+    @Getter
+    @Setter
+    public static class VerifiedCache {
+        /* Off: every check that is not joined to a running one hashes */
+        private boolean enabled = false;
+        /* Kept very short: it only has to absorb a retry burst */
+        private Duration ttl = Duration.ofSeconds(2);
+        /* Bound on the estimated heap taken by the entries */
+        private long maximumBytes = 1024 * 1024;
+    }
+}
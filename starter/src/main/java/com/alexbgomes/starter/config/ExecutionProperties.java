@@ -0,0 +1,20 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.execution")
+public class ExecutionProperties {
+    /* servlet runs lookups inline on the request thread, offload moves them to the blocking IO pool as well */
+    private Mode mode = Mode.SERVLET;
+    private int ioThreads = 64;
+    private int ioQueueCapacity = 1024;
+
+    public enum Mode {
+        SERVLET,
+        OFFLOAD,
+    }
+}
@@ -0,0 +1,19 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.users.group-commit")
+public class GroupCommitProperties {
+    /* off: each registration inserts its own row in its own transaction */
+    private boolean enabled = false;
+    /* how long the first registration of a batch waits for others to join it */
+    private Duration maxDelay = Duration.ofMillis(2);
+    private int maxRows = 256;
+    private int queueCapacity = 4096;
+}
@@ -0,0 +1,34 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.throttle.login")
+public class LoginThrottleProperties {
+    private boolean enabled = true;
+    /* Upper bound on tracked keys per limiter, idle keys are dropped first */
+    private long maximumKeys = 100_000;
+    private Limit username = new Limit(10, Duration.ofSeconds(6));
+    private Limit address = new Limit(50, Duration.ofMillis(600));
+
+    /* Token bucket: up to burst attempts at once, then one attempt per interval */
+    @Getter
+    @Setter
+    public static class Limit {
+        private int burst;
+        private Duration interval;
+
+        public Limit() {
+        }
+
+        public Limit(int burst, Duration interval) {
+            this.burst = burst;
+            this.interval = interval;
+        }
+    }
+}
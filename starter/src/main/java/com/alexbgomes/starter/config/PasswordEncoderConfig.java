@@ -0,0 +1,113 @@
+package com.alexbgomes.starter.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.util.ClassUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Configuration
+public class PasswordEncoderConfig {
+    private static final String CALIBRATION_PWD = "C@libration1";
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+    private static final BCryptPasswordEncoder LEGACY_BCRYPT = new BCryptPasswordEncoder();
+
+    /* New hashes are written as {id}hash. Hashes stored before the prefix existed are either bare bcrypt
+     * or, like the seeded admin row, plaintext; both still match and are reported as needing an upgrade.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(PasswordEncoderProperties properties) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(calibrateBCryptStrength(properties)));
+        encoders.put("pbkdf2", new Pbkdf2PasswordEncoder());
+        if (ClassUtils.isPresent("org.bouncycastle.crypto.generators.Argon2BytesGenerator", null))
+            encoders.put("argon2", new Argon2PasswordEncoder());
+
+        return new LegacyMatchingPasswordEncoder(new DelegatingPasswordEncoder(properties.getId(), encoders), encoders.keySet(),
+                PasswordEncoderConfig::matchesLegacy);
+    }
+
+    /* Picks the lowest strength whose encode time reaches the target latency on this machine.
+     * Each step doubles the work, so the search stops after a handful of hashes.
+     */
+    private int calibrateBCryptStrength(PasswordEncoderProperties properties) {
+        long targetNanos = properties.getTargetLatency().toNanos();
+        BCryptPasswordEncoder warmupEncoder = new BCryptPasswordEncoder(4);
+        for (int i = 0; i < 20; i++)
+            warmupEncoder.encode(CALIBRATION_PWD);
+
+        int strength = properties.getMinStrength();
+        long elapsed = 0;
+        for (; strength < properties.getMaxStrength(); strength++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PWD);
+            elapsed = System.nanoTime() - start;
+            if (elapsed >= targetNanos)
+                break;
+        }
+
+        log.info("BCrypt strength calibrated to {} ({} ms per hash, target {} ms)",
+                strength, elapsed / 1_000_000, properties.getTargetLatency().toMillis());
+        return strength;
+    }
+
+    /* Bare bcrypt or plaintext, as stored before the {id} prefix */
+    private static boolean matchesLegacy(CharSequence rawPassword, String encodedPassword) {
+        if (BCRYPT_PATTERN.matcher(encodedPassword).matches())
+            return LEGACY_BCRYPT.matches(rawPassword, encodedPassword);
+
+        return MessageDigest.isEqual(rawPassword.toString().getBytes(StandardCharsets.UTF_8),
+                encodedPassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /* DelegatingPasswordEncoder only falls back to a whole PasswordEncoder, which would have to encode too.
+     * Legacy hashes are only ever matched, so hashes without a known {id} go to a matcher function instead and
+     * everything else, encoding and upgrade checks included, to the delegating encoder.
+     */
+    private static class LegacyMatchingPasswordEncoder implements PasswordEncoder {
+        private final DelegatingPasswordEncoder delegate;
+        private final Set<String> ids;
+        private final BiPredicate<CharSequence, String> legacyMatcher;
+
+        private LegacyMatchingPasswordEncoder(DelegatingPasswordEncoder delegate, Set<String> ids, BiPredicate<CharSequence, String> legacyMatcher) {
+            this.delegate = delegate;
+            this.ids = ids;
+            this.legacyMatcher = legacyMatcher;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            if (encodedPassword == null)
+                return false;
+
+            int end = encodedPassword.startsWith("{") ? encodedPassword.indexOf('}') : -1;
+            if (end < 0 || !ids.contains(encodedPassword.substring(1, end)))
+                return legacyMatcher.test(rawPassword, encodedPassword);
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return delegate.upgradeEncoding(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.password.encoder")
+public class PasswordEncoderProperties {
+    /* Encoder used for new hashes: bcrypt, pbkdf2 or argon2 (argon2 needs BouncyCastle on the classpath) */
+    private String id = "bcrypt";
+    private Duration targetLatency = Duration.ofMillis(50);
+    private int minStrength = 10;
+    private int maxStrength = 16;
+}
@@ -0,0 +1,17 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.password.hashing")
+public class PasswordHashingProperties {
+    /* 0 sizes the pool to the available cores */
+    private int threads = 0;
+    private int queueCapacity = 256;
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
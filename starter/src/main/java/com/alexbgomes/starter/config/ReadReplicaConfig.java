@@ -0,0 +1,65 @@
+package com.alexbgomes.starter.config;
+
+import com.alexbgomes.starter.data.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Replaces the auto-configured DataSource when starter.datasource.read.enabled=true. spring.datasource stays the
+ * primary and takes every statement by default; only reads explicitly wrapped in ReadRouting go to the configured
+ * replicas through ReplicaRoutingDataSource. Those are the uncached listings, /api/users/stream and getUsers.
+ * Everything else deliberately stays on the primary, although replica routing was asked for reads in general.
+ * UserService.validate() and loginUser check existence and credentials through UserCache, whose misses load from
+ * the primary, so a lagging replica can never turn a fresh registration into a 404 or accept an old password. The
+ * /api/users pages are loaded from the primary too, because the page cache keeps them with strong ETags until the
+ * next write.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "starter.datasource.read", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+    /* The only DataSource bean, so schema initialization and JPA keep finding a single primary one */
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, ReadReplicaProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ReadReplicaProperties.Replica replica : properties.getReplicas()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + replicas.size());
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setConnectionTimeout(replica.getConnectionTimeout().toMillis());
+            dataSource.setReadOnly(true);
+            replicas.add(dataSource);
+        }
+        return new ReadReplicaDataSource(new ReplicaRoutingDataSource(primary, replicas, properties, meterRegistry));
+    }
+
+    /* The lazy proxy has no close of its own; closing it closes the pools behind it */
+    static class ReadReplicaDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+        private final ReplicaRoutingDataSource routingDataSource;
+
+        ReadReplicaDataSource(ReplicaRoutingDataSource routingDataSource) {
+            super(routingDataSource);
+            this.routingDataSource = routingDataSource;
+        }
+
+        @Override
+        public void close() {
+            routingDataSource.close();
+        }
+    }
+}
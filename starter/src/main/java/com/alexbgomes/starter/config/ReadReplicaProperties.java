@@ -0,0 +1,40 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.datasource.read")
+public class ReadReplicaProperties {
+    /* Off: every statement uses spring.datasource as before */
+    private boolean enabled = false;
+    private List<Replica> replicas = new ArrayList<>();
+    private Selection selection = Selection.ROUND_ROBIN;
+    /* After a user's own write their reads stay on the primary this long, to cover replication lag */
+    private Duration stickyWindow = Duration.ofSeconds(5);
+    /* A replica that failed to hand out a connection is skipped this long */
+    private Duration retryAfter = Duration.ofSeconds(5);
+
+    public enum Selection {
+        ROUND_ROBIN,
+        /* fewest connections in use */
+        LEAST_LOADED,
+    }
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username = "sa";
+        private String password = "";
+        private int maximumPoolSize = 10;
+        /* Short, so a dead replica falls back to the primary quickly instead of holding the request */
+        private Duration connectionTimeout = Duration.ofSeconds(1);
+    }
+}
@@ -1,25 +1,29 @@
 package com.alexbgomes.starter.config;
 
-import org.springframework.context.annotation.Bean;
+import com.alexbgomes.starter.business.session.SessionTokenService;
+import com.alexbgomes.starter.controllers.SessionTokenFilter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
     @Override
     protected void configure(HttpSecurity security) throws Exception {
         security.authorizeRequests()
                 .antMatchers("/").permitAll()
                 .antMatchers("/h2-console/**").permitAll();
 
+        security.sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
+        security.addFilterBefore(new SessionTokenFilter(sessionTokenService), UsernamePasswordAuthenticationFilter.class);
+
         security.csrf().disable();
         security.headers().frameOptions().disable();
     }
-
-    @Bean
-    public BCryptPasswordEncoder bCryptPasswordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
 }
@@ -0,0 +1,16 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.session.token")
+public class SessionTokenProperties {
+    /* Base64 HMAC key shared by every node; when empty a random key is generated and tokens die with the process */
+    private String secret = "";
+    private Duration ttl = Duration.ofMinutes(15);
+}
@@ -0,0 +1,45 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.users.sharding")
+public class ShardingProperties {
+    /* Read with starter.users.repository=sharded; each shard is its own database holding a USERS table. Which of them
+     * are on the ring is kept in USER_SHARDS on the default database once the first node has started.
+     */
+    private List<Shard> shards = new ArrayList<>();
+    /* Points per shard on the hash ring, more spreads keys more evenly */
+    private int virtualNodes = 128;
+    private int rebalanceBatchSize = 500;
+    /* How soon a node follows a ring change made by another; also read by @Scheduled, so ISO-8601 (PT5S) or millis */
+    private Duration refreshInterval = Duration.ofSeconds(5);
+
+    @Getter
+    @Setter
+    public static class Shard {
+        /* Placement on the ring derives from the name, so renaming a shard moves its keys */
+        private String name;
+        private String url;
+        private String username = "sa";
+        private String password = "";
+        private int maximumPoolSize = 10;
+        /* Left off the ring on the first start, to be joined later through the shards actuator endpoint */
+        private boolean standby = false;
+
+        public Shard() {
+        }
+
+        public Shard(String name, String url) {
+            this.name = name;
+            this.url = url;
+        }
+    }
+}
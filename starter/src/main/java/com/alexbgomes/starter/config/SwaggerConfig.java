@@ -1,5 +1,6 @@
 package com.alexbgomes.starter.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import springfox.documentation.builders.PathSelectors;
@@ -12,8 +13,12 @@ import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
 import java.util.Collections;
 
+/* Off with springfox.documentation.enabled=false (the prod profile), which also keeps @EnableSwagger2 from
+ * importing the springfox scanners. Only the API controllers are scanned, not actuator or error handlers.
+ */
 @Configuration
 @EnableSwagger2
+@ConditionalOnProperty(name = "springfox.documentation.enabled", havingValue = "true", matchIfMissing = true)
 public class SwaggerConfig {
     private ApiInfo apiInfo = new ApiInfo(
                 "Starter Project API",
@@ -29,7 +34,7 @@ public class SwaggerConfig {
         return new Docket(DocumentationType.SWAGGER_2)
                 .apiInfo(apiInfo)
                 .select()
-                .apis(RequestHandlerSelectors.any())
+                .apis(RequestHandlerSelectors.basePackage("com.alexbgomes.starter.controllers"))
                 .paths(PathSelectors.ant("/api/**"))
                 .build();
     }
@@ -0,0 +1,23 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.users.changelog")
+public class UserChangelogProperties {
+    /* Turn on when several nodes share the database; a single node needs no change log */
+    private boolean enabled = false;
+    /* Upper bound on how long another node's write can go unseen here; also read by @Scheduled, so ISO-8601 (PT1S) or millis */
+    private Duration pollInterval = Duration.ofSeconds(1);
+    private int batchSize = 1000;
+    /* A sequence gap is waited on this long for a slow commit before it is given up as a rollback */
+    private Duration gapTimeout = Duration.ofSeconds(10);
+    private Duration retention = Duration.ofHours(1);
+    private String nodeId = UUID.randomUUID().toString();
+}
@@ -0,0 +1,14 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.users.import")
+public class UserImportProperties {
+    private int batchSize = 500;
+    /* 0 uses every available core */
+    private int parallelism = 0;
+}
@@ -0,0 +1,13 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.cache.users.pages")
+public class UserPageCacheProperties {
+    /* Serialized /api/users pages kept across all versions; stale versions are never read again and age out */
+    private long maximumSize = 1_000;
+}
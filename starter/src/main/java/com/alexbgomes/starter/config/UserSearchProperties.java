@@ -0,0 +1,18 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.users.search")
+public class UserSearchProperties {
+    private boolean enabled = true;
+    private int defaultLimit = 20;
+    private int maxLimit = 100;
+    /* Writes since the last build are kept in a small sorted delta, folded into the packed index this often */
+    private Duration compactInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,20 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.cache.users.filter")
+public class UsernameFilterProperties {
+    private boolean enabled = true;
+    private long expectedInsertions = 1_000_000;
+    private double falsePositiveRate = 0.01;
+    private DataSize maxMemory = DataSize.ofMegabytes(16);
+    /* Deletes are never removed from a Bloom filter, a periodic rebuild drops them */
+    private Duration rebuildInterval = Duration.ofHours(1);
+}
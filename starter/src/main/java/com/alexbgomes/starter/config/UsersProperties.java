@@ -0,0 +1,20 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.users")
+public class UsersProperties {
+    private int defaultPageSize = 100;
+    private int maxPageSize = 1000;
+    private int fetchSize = 500;
+    /* jpa, jooq or sharded, picks the UserRepository implementation */
+    private String repository = "jpa";
+
+    public boolean isSharded() {
+        return "sharded".equals(repository);
+    }
+}
@@ -0,0 +1,20 @@
+package com.alexbgomes.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "starter.warmup")
+public class WarmupProperties {
+    private boolean enabled = false;
+    /* Synthetic passes over validation, JSON mapping and repository reads */
+    private int iterations = 2000;
+    /* BCrypt verifications; each one costs a full hash at the calibrated strength */
+    private int hashingIterations = 10;
+    /* Hard cap on the whole warm-up, readiness flips when it is reached even if iterations remain */
+    private Duration maxDuration = Duration.ofSeconds(10);
+}
@@ -0,0 +1,34 @@
+package com.alexbgomes.starter.controllers;
+
+import com.alexbgomes.starter.business.domain.ResponseMessages;
+import com.alexbgomes.starter.business.throttle.LoginThrottledException;
+import com.alexbgomes.starter.config.PasswordHashingProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.concurrent.RejectedExecutionException;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+    @Autowired
+    private PasswordHashingProperties passwordHashingProperties;
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> hashingSaturated(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingProperties.getRetryAfter().toSeconds()))
+                .body(ResponseMessages.SERVER_BUSY);
+    }
+
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<String> loginThrottled(LoginThrottledException e) {
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(ResponseMessages.TOO_MANY_ATTEMPTS);
+    }
+}
@@ -0,0 +1,47 @@
+package com.alexbgomes.starter.controllers;
+
+import com.alexbgomes.starter.business.session.SessionTokenService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Optional;
+
+/* Authenticates "Authorization: Bearer <token>" requests from a session token issued at login. Requests without
+ * the header pass through unauthenticated; a token that is present but invalid, expired or revoked is a 401.
+ */
+public class SessionTokenFilter extends OncePerRequestFilter {
+    private static final String BEARER = "Bearer ";
+
+    private final SessionTokenService sessionTokenService;
+
+    public SessionTokenFilter(SessionTokenService sessionTokenService) {
+        this.sessionTokenService = sessionTokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.startsWith(BEARER)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<String> username = sessionTokenService.verify(authorization.substring(BEARER.length()));
+        if (username.isEmpty()) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), "Session token is invalid or expired.");
+            return;
+        }
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(username.get(), null, Collections.emptyList()));
+        chain.doFilter(request, response);
+    }
+}
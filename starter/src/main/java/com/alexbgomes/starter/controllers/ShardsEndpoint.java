@@ -0,0 +1,47 @@
+package com.alexbgomes.starter.controllers;
+
+import com.alexbgomes.starter.data.repository.UserShards;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/* Operator view of the shard ring and the trigger for joining a standby shard, at /actuator/shards. Not exposed over
+ * HTTP by default: add shards to management.endpoints.web.exposure.include on a port only operators can reach.
+ * POST {"name": "..."} starts the rebalance, or resumes an unfinished one, and answers without waiting for it.
+ */
+@Component
+@Endpoint(id = "shards")
+@ConditionalOnProperty(prefix = "starter.users", name = "repository", havingValue = "sharded")
+public class ShardsEndpoint {
+    private final UserShards userShards;
+
+    @Autowired
+    public ShardsEndpoint(UserShards userShards) {
+        this.userShards = userShards;
+    }
+
+    @ReadOperation
+    public Map<String, Object> shards() {
+        Map<String, Object> shards = new LinkedHashMap<>();
+        shards.put("shards", userShards.getShards());
+        shards.put("rebalancing", userShards.getRebalanceTarget());
+        return shards;
+    }
+
+    @WriteOperation
+    public Map<String, Object> addShard(String name) {
+        try {
+            userShards.addShard(name);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        return shards();
+    }
+}
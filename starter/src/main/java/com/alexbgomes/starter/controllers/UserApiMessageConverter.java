@@ -0,0 +1,116 @@
+package com.alexbgomes.starter.controllers;
+
+import com.alexbgomes.starter.business.domain.ResponseMessages;
+import com.alexbgomes.starter.data.dto.UserDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/* The two codecs of the register/login/unregister exchange, ahead of the defaults in Spring Boot's HttpMessageConverters.
+ * Reads the UserDTO body straight off the request stream with the streaming parser, instead of going through databind
+ * for two fields; the parser's buffers come from Jackson's per-thread recycler. Same leniency as the databind path:
+ * unknown fields are skipped, null stays null and scalars are taken as text.
+ * Writes the text/plain String answers as UTF-8. Fixed messages go out as their pre-encoded bytes; other text is
+ * encoded once, where StringHttpMessageConverter encodes it again to work out Content-Length.
+ * Any other type, charset or media type is left to the default converters behind it.
+ */
+@Component
+public class UserApiMessageConverter extends AbstractHttpMessageConverter<Object> {
+    private static final String USERNAME = "username";
+    private static final String PWD = "pwd";
+    private static final MediaType JSON_SUFFIX = new MediaType("application", "*+json");
+    private static final MediaType TEXT_PLAIN_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+    private static final List<MediaType> READ = Arrays.asList(MediaType.APPLICATION_JSON, JSON_SUFFIX);
+
+    private final JsonFactory jsonFactory;
+
+    @Autowired
+    public UserApiMessageConverter(ObjectMapper objectMapper) {
+        /* text/plain first: String answers are negotiated against this list, in this order */
+        super(TEXT_PLAIN_UTF8, MediaType.APPLICATION_JSON, JSON_SUFFIX);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == UserDTO.class || clazz == String.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz == UserDTO.class && (mediaType == null || READ.stream().anyMatch(type -> type.includes(mediaType)));
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return clazz == String.class && (mediaType == null || mediaType.isWildcardType()
+                || (MediaType.TEXT_PLAIN.includes(mediaType) && (mediaType.getCharset() == null || StandardCharsets.UTF_8.equals(mediaType.getCharset()))));
+    }
+
+    @Override
+    protected MediaType getDefaultContentType(Object body) {
+        return TEXT_PLAIN_UTF8;
+    }
+
+    /* Only ever called for UserDTO, the one type canRead admits */
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(inputMessage.getBody())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                throw new HttpMessageNotReadableException("Expected a JSON object with username and pwd", inputMessage);
+
+            UserDTO userDTO = new UserDTO();
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                JsonToken value = parser.nextToken();
+                if (USERNAME.equals(field)) {
+                    userDTO.setUsername(text(parser, value, inputMessage));
+                } else if (PWD.equals(field)) {
+                    userDTO.setPwd(text(parser, value, inputMessage));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return userDTO;
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e, inputMessage);
+        }
+    }
+
+    private static String text(JsonParser parser, JsonToken value, HttpInputMessage inputMessage) throws IOException {
+        if (value == JsonToken.VALUE_NULL)
+            return null;
+        if (!value.isScalarValue())
+            throw new HttpMessageNotReadableException("Expected text for " + parser.getCurrentName(), inputMessage);
+        return parser.getValueAsString();
+    }
+
+    /* Only ever called for String, the one type canWrite admits; the content type is already set by write */
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        String text = (String) body;
+        byte[] bytes = ResponseMessages.encoded(text);
+        if (bytes == null)
+            bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        HttpHeaders headers = outputMessage.getHeaders();
+        if (headers.getContentLength() < 0 && !headers.containsKey(HttpHeaders.TRANSFER_ENCODING))
+            headers.setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+}
@@ -1,49 +1,107 @@
 package com.alexbgomes.starter.controllers;
 
+import com.alexbgomes.starter.business.cache.CachedUserPage;
+import com.alexbgomes.starter.business.metrics.UserApiMetrics;
+import com.alexbgomes.starter.business.metrics.UserApiMetrics.Endpoint;
+import com.alexbgomes.starter.business.metrics.UserApiMetrics.Stage;
+import com.alexbgomes.starter.business.service.UserImportService;
 import com.alexbgomes.starter.business.service.UserService;
+import com.alexbgomes.starter.business.throttle.LoginThrottle;
 import com.alexbgomes.starter.data.dto.UserDTO;
+import com.alexbgomes.starter.data.dto.UserSummaryDTO;
 import com.alexbgomes.starter.data.entity.User;
-import org.modelmapper.ModelMapper;
+import com.alexbgomes.starter.data.mapper.UserMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.InputStream;
+import java.security.Principal;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class UserController {
-    private static final ModelMapper modelMapper = new ModelMapper();
-
     @Autowired
     private UserService userService;
 
-    @GetMapping("/api/users")
-    public List<User> users() {
-        return userService.getUsers();
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private UserApiMetrics userApiMetrics;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    private User toEntity(Endpoint endpoint, UserDTO userDTO) {
+        long start = System.nanoTime();
+        User user = userMapper.toEntity(userDTO);
+        userApiMetrics.record(endpoint, Stage.MAPPING, UserApiMetrics.OUTCOME_OK, start);
+        return user;
+    }
+
+    /* Served from the versioned page cache; a matching If-None-Match is a 304 with no database or Jackson work */
+    @GetMapping(value = "/api/users", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> users(@RequestParam(required = false) String after,
+                                        @RequestParam(required = false) Integer limit, WebRequest webRequest) {
+        CachedUserPage page = userService.getUsersPage(after, limit);
+        if (webRequest.checkNotModified(page.getEtag()))
+            return null;
+
+        return ResponseEntity.ok().eTag(page.getEtag()).body(page.getBody());
+    }
+
+    @GetMapping("/api/users/search")
+    public List<UserSummaryDTO> searchUsers(@RequestParam String prefix, @RequestParam(required = false) Integer limit) {
+        return userService.searchUsers(prefix, limit);
+    }
+
+    @GetMapping(value = "/api/users/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamUsers(@RequestParam(required = false) String after) {
+        return out -> userService.streamUsers(after, out);
+    }
+
+    @PostMapping(value = "/api/users/import", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody importUsers(InputStream in) {
+        return out -> userImportService.importUsers(in, out);
     }
 
     @PostMapping("/api/register")
-    public ResponseEntity<String> registerUser(@RequestBody UserDTO userDTO) {
-        User user = modelMapper.map(userDTO, User.class);
-        Optional<ResponseEntity<String>> invalidResponse = userService.getResponseIfInvalid(user);
-        return invalidResponse.orElse(userService.setUser((user)));
+    public CompletableFuture<ResponseEntity<String>> registerUser(@RequestBody UserDTO userDTO) {
+        User user = toEntity(Endpoint.REGISTER, userDTO);
+        return userService.setUser(user);
     }
 
     @PostMapping("/api/login")
-    public ResponseEntity<String> loginUser(@RequestBody UserDTO userDTO) {
-        User user = modelMapper.map(userDTO, User.class);
-        Optional<ResponseEntity<String>> invalidResponse = userService.getResponseIfInvalid(user, true);
-        return invalidResponse.orElse(userService.loginUser((user)));
+    public CompletableFuture<ResponseEntity<String>> loginUser(@RequestBody UserDTO userDTO, HttpServletRequest request) {
+        loginThrottle.acquire(request.getRemoteAddr(), userDTO.getUsername());
+        User user = toEntity(Endpoint.LOGIN, userDTO);
+        return userService.loginUser(user);
     }
 
+    /* With a session token the token's user is removed and the body is not needed; otherwise username and password */
     @PostMapping("/api/unregister")
-    public ResponseEntity<String> unregisterUser(@RequestBody UserDTO userDTO) {
-        User user = modelMapper.map(userDTO, User.class);
-        Optional<ResponseEntity<String>> invalidResponse = userService.getResponseIfInvalid(user, true);
-        return invalidResponse.orElse(userService.rmUser((user)));
+    public CompletableFuture<ResponseEntity<String>> unregisterUser(@RequestBody(required = false) UserDTO userDTO, Principal principal,
+                                                                    HttpServletRequest request) {
+        if (principal != null)
+            return userService.rmUser(principal.getName());
+
+        if (userDTO == null)
+            userDTO = new UserDTO();
+        loginThrottle.acquire(request.getRemoteAddr(), userDTO.getUsername());
+        User user = toEntity(Endpoint.UNREGISTER, userDTO);
+        return userService.rmUser(user);
     }
 }
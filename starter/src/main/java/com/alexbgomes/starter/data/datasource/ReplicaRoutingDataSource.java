@@ -0,0 +1,155 @@
+package com.alexbgomes.starter.data.datasource;
+
+import com.alexbgomes.starter.config.ReadReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/* Sends connections taken inside readFromReplica to a replica and everything else to the primary. Routing is by
+ * explicit opt-in rather than the transaction's read-only flag, since Spring Data marks every repository read
+ * read-only, including the ones that must see the caller's own write. A write transaction already in progress
+ * keeps its primary connection. It sits behind a LazyConnectionDataSourceProxy so the target is only chosen at
+ * the first statement. Replicas are picked round-robin or by fewest active connections; one that fails to hand out
+ * a connection is skipped for retry-after and the read goes to the primary.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final ReadReplicaProperties properties;
+    private final AtomicInteger next = new AtomicInteger();
+    /* nanoTime until which each replica is skipped, 0 while healthy */
+    private final AtomicLongArray downUntil;
+    private final Counter replicaReads;
+    private final Counter fallbacks;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, ReadReplicaProperties properties, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.properties = properties;
+        this.downUntil = new AtomicLongArray(replicas.size());
+        this.replicaReads = Counter.builder("users.datasource.reads").tag("target", "replica").register(meterRegistry);
+        this.fallbacks = Counter.builder("users.datasource.reads").tag("target", "fallback").register(meterRegistry);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++)
+            targets.put(i, replicas.get(i));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /* Runs query with its connections allowed to come from a replica */
+    public static <T> T readFromReplica(Supplier<T> query) {
+        Boolean outer = REPLICA_READ.get();
+        REPLICA_READ.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            if (outer == null)
+                REPLICA_READ.remove();
+        }
+    }
+
+    /* Runs query on the primary, also when called inside readFromReplica */
+    public static <T> T readFromPrimary(Supplier<T> query) {
+        Boolean outer = REPLICA_READ.get();
+        REPLICA_READ.remove();
+        try {
+            return query.get();
+        } finally {
+            if (outer != null)
+                REPLICA_READ.set(outer);
+        }
+    }
+
+    /* A replica index, or PRIMARY outside readFromReplica, inside a write transaction and when no replica is up */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (REPLICA_READ.get() == null || replicas.isEmpty())
+            return PRIMARY;
+        if (TransactionSynchronizationManager.isActualTransactionActive() && !TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+            return PRIMARY;
+
+        long now = System.nanoTime();
+        int chosen = -1;
+        if (properties.getSelection() == ReadReplicaProperties.Selection.LEAST_LOADED) {
+            int fewest = Integer.MAX_VALUE;
+            for (int i = 0; i < replicas.size(); i++) {
+                int active = activeConnections(replicas.get(i));
+                if (isUp(i, now) && active < fewest) {
+                    fewest = active;
+                    chosen = i;
+                }
+            }
+        } else {
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size() && chosen < 0; i++) {
+                int candidate = (start + i) % replicas.size();
+                if (isUp(candidate, now))
+                    chosen = candidate;
+            }
+        }
+        return chosen < 0 ? PRIMARY : chosen;
+    }
+
+    private boolean isUp(int replica, long now) {
+        long until = downUntil.get(replica);
+        return until == 0 || until - now < 0;
+    }
+
+    private static int activeConnections(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key))
+            return primary.getConnection();
+
+        int replica = (Integer) key;
+        try {
+            Connection connection = replicas.get(replica).getConnection();
+            downUntil.set(replica, 0);
+            replicaReads.increment();
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            downUntil.set(replica, System.nanoTime() + properties.getRetryAfter().toNanos());
+            fallbacks.increment();
+            log.warn("Replica {} unavailable, reading from the primary for {}: {}", replica, properties.getRetryAfter(), e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
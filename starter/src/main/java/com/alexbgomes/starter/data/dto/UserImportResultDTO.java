@@ -0,0 +1,16 @@
+package com.alexbgomes.starter.data.dto;
+
+import com.alexbgomes.starter.business.domain.ImportStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResultDTO {
+    private final long line;
+    private final String username;
+    private final ImportStatus status;
+    private final String message;
+}
@@ -0,0 +1,12 @@
+package com.alexbgomes.starter.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/* Read-only listing projection, never carries the password hash
+ */
+@Getter
+@AllArgsConstructor
+public class UserSummaryDTO {
+    private final String username;
+}
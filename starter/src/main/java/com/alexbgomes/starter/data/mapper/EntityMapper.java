@@ -0,0 +1,9 @@
+package com.alexbgomes.starter.data.mapper;
+
+/* Explicit DTO <-> entity conversion; each DTO gets a hand-written implementation instead of reflective mapping
+ */
+public interface EntityMapper<D, E> {
+    E toEntity(D dto);
+
+    D toDto(E entity);
+}
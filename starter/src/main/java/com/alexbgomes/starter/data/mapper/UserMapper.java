@@ -0,0 +1,21 @@
+package com.alexbgomes.starter.data.mapper;
+
+import com.alexbgomes.starter.data.dto.UserDTO;
+import com.alexbgomes.starter.data.entity.User;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UserMapper implements EntityMapper<UserDTO, User> {
+    @Override
+    public User toEntity(UserDTO dto) {
+        return new User(dto.getUsername(), dto.getPwd());
+    }
+
+    @Override
+    public UserDTO toDto(User entity) {
+        UserDTO dto = new UserDTO();
+        dto.setUsername(entity.getUsername());
+        dto.setPwd(entity.getPwd());
+        return dto;
+    }
+}
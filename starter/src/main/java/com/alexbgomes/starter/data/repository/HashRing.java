@@ -0,0 +1,63 @@
+package com.alexbgomes.starter.data.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/* Consistent hash ring over shard names. Each shard owns virtualNodes points and a key belongs to the first point
+ * at or after its hash, wrapping around. Adding a shard only takes over the arcs just before its own points, so
+ * about 1/N of the keys move and none move between the shards that were already there.
+ */
+public class HashRing {
+    private final long[] points;
+    private final String[] owners;
+    private final List<String> shards;
+
+    public HashRing(List<String> shards, int virtualNodes) {
+        if (shards.isEmpty())
+            throw new IllegalArgumentException("At least one shard is required");
+
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        long[][] entries = new long[shards.size() * virtualNodes][];
+        int i = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (int node = 0; node < virtualNodes; node++)
+                entries[i++] = new long[]{hash(shards.get(shard) + "#" + node), shard};
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+        this.points = new long[entries.length];
+        this.owners = new String[entries.length];
+        for (i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = shards.get((int) entries[i][1]);
+        }
+    }
+
+    private static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    public String shardFor(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0)
+            index = -index - 1;
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+}
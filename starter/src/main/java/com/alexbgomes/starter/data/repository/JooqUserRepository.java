@@ -0,0 +1,164 @@
+package com.alexbgomes.starter.data.repository;
+
+import com.alexbgomes.starter.config.UsersProperties;
+import com.alexbgomes.starter.data.dto.UserSummaryDTO;
+import com.alexbgomes.starter.data.entity.User;
+import org.jooq.BatchBindStep;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static com.alexbgomes.starter.data.repository.UserTable.PWD;
+import static com.alexbgomes.starter.data.repository.UserTable.USERNAME;
+import static com.alexbgomes.starter.data.repository.UserTable.USERS;
+
+/* UserRepository on plain jOOQ, enabled with starter.users.repository=jooq. Every call is one statement with no
+ * persistence context, and deletes never load the row first. insert is a plain INSERT, so a taken username fails
+ * with DuplicateKeyException rather than overwriting the row; updatePwd only replaces the hash it expects.
+ * save keeps the CrudRepository create-or-replace contract as an UPDATE followed by an INSERT when nothing matched.
+ * The fixed statements are rendered once up front, so each call only binds and executes. Reusing the prepared
+ * statement itself is left to the driver's statement cache, which the identical SQL text lets it hit.
+ */
+@Primary
+@Repository
+@ConditionalOnProperty(prefix = "starter.users", name = "repository", havingValue = "jooq")
+public class JooqUserRepository implements UserRepository {
+    private final DSLContext dsl;
+    private final UserKeysetRepository keysetRepository;
+    private final String selectById;
+    private final String selectAll;
+    private final String count;
+    private final String insert;
+    private final String update;
+    private final String updatePwd;
+    private final String deleteById;
+    private final String deleteAll;
+
+    @Autowired
+    public JooqUserRepository(DSLContext dsl, UsersProperties usersProperties) {
+        this.dsl = dsl;
+        this.keysetRepository = new UserKeysetRepositoryImpl(dsl, usersProperties);
+        this.selectById = dsl.render(dsl.select(USERNAME, PWD).from(USERS).where(USERNAME.eq((String) null)));
+        this.selectAll = dsl.render(dsl.select(USERNAME, PWD).from(USERS).orderBy(USERNAME));
+        this.count = dsl.render(dsl.selectCount().from(USERS));
+        this.insert = dsl.render(dsl.insertInto(USERS, USERNAME, PWD).values((String) null, null));
+        this.update = dsl.render(dsl.update(USERS).set(PWD, (String) null).where(USERNAME.eq((String) null)));
+        this.updatePwd = dsl.render(dsl.update(USERS).set(PWD, (String) null).where(USERNAME.eq((String) null)).and(PWD.eq((String) null)));
+        this.deleteById = dsl.render(dsl.deleteFrom(USERS).where(USERNAME.eq((String) null)));
+        this.deleteAll = dsl.render(dsl.deleteFrom(USERS));
+    }
+
+    private static User toUser(Record record) {
+        return new User(record.get(0, String.class), record.get(1, String.class));
+    }
+
+    @Override
+    public int insert(String username, String pwd) {
+        return dsl.execute(insert, username, pwd);
+    }
+
+    @Override
+    public int updatePwd(String username, String expectedPwd, String pwd) {
+        return dsl.execute(updatePwd, pwd, username, expectedPwd);
+    }
+
+    @Override
+    public <S extends User> S save(S entity) {
+        if (dsl.execute(update, entity.getPwd(), entity.getUsername()) == 0)
+            dsl.execute(insert, entity.getUsername(), entity.getPwd());
+        return entity;
+    }
+
+    @Override
+    @Transactional
+    public <S extends User> Iterable<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        for (S entity : entities)
+            saved.add(save(entity));
+        return saved;
+    }
+
+    @Override
+    public Optional<User> findById(String username) {
+        return dsl.fetchOptional(selectById, username).map(JooqUserRepository::toUser);
+    }
+
+    @Override
+    public boolean existsById(String username) {
+        return findById(username).isPresent();
+    }
+
+    @Override
+    public List<User> findAll() {
+        return dsl.fetch(selectAll).map(JooqUserRepository::toUser);
+    }
+
+    @Override
+    public Iterable<User> findAllById(Iterable<String> usernames) {
+        List<String> keys = new ArrayList<>();
+        usernames.forEach(keys::add);
+        if (keys.isEmpty())
+            return List.of();
+
+        return dsl.select(USERNAME, PWD).from(USERS).where(USERNAME.in(keys)).fetch(JooqUserRepository::toUser);
+    }
+
+    @Override
+    public long count() {
+        return dsl.fetchOne(count).get(0, Long.class);
+    }
+
+    @Override
+    public int deleteByUsername(String username) {
+        return dsl.execute(deleteById, username);
+    }
+
+    @Override
+    public void deleteById(String username) {
+        if (deleteByUsername(username) == 0)
+            throw new EmptyResultDataAccessException(String.format("No %s entity with id %s exists!", User.class, username), 1);
+    }
+
+    @Override
+    public void delete(User entity) {
+        deleteByUsername(entity.getUsername());
+    }
+
+    @Override
+    @Transactional
+    public void deleteAll(Iterable<? extends User> entities) {
+        BatchBindStep batch = dsl.batch(deleteById);
+        boolean empty = true;
+        for (User entity : entities) {
+            batch.bind(entity.getUsername());
+            empty = false;
+        }
+        if (!empty)
+            batch.execute();
+    }
+
+    @Override
+    public void deleteAll() {
+        dsl.execute(deleteAll);
+    }
+
+    @Override
+    public List<UserSummaryDTO> findPageAfter(String after, int limit) {
+        return keysetRepository.findPageAfter(after, limit);
+    }
+
+    @Override
+    public void forEachAfter(String after, Consumer<UserSummaryDTO> consumer) {
+        keysetRepository.forEachAfter(after, consumer);
+    }
+}
@@ -0,0 +1,249 @@
+package com.alexbgomes.starter.data.repository;
+
+import com.alexbgomes.starter.config.UsersProperties;
+import com.alexbgomes.starter.data.dto.UserSummaryDTO;
+import com.alexbgomes.starter.data.entity.User;
+import org.jooq.Condition;
+import org.jooq.Cursor;
+import org.jooq.DSLContext;
+import org.jooq.Record1;
+import org.jooq.impl.DSL;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static com.alexbgomes.starter.data.repository.UserTable.PWD;
+import static com.alexbgomes.starter.data.repository.UserTable.USERNAME;
+import static com.alexbgomes.starter.data.repository.UserTable.USERS;
+
+/* UserRepository over UserShards, enabled with starter.users.repository=sharded. Keyed calls go to the shard that
+ * owns the username; listing asks every shard in parallel for its own sorted slice and merges them in username
+ * order, so a page never needs more than limit rows from each shard. Writes run through UserShards.write, so a
+ * rebalance never moves a row across them. While a rebalance runs a user can briefly sit on two shards, so merges
+ * drop repeats and count may run slightly high.
+ */
+@Primary
+@Repository
+@ConditionalOnProperty(prefix = "starter.users", name = "repository", havingValue = "sharded")
+public class ShardedUserRepository implements UserRepository {
+    private final UserShards shards;
+    private final UsersProperties usersProperties;
+
+    @Autowired
+    public ShardedUserRepository(UserShards shards, UsersProperties usersProperties) {
+        this.shards = shards;
+        this.usersProperties = usersProperties;
+    }
+
+    private static Condition after(String after) {
+        return after == null ? DSL.noCondition() : USERNAME.gt(after);
+    }
+
+    /* k-way merge of ascending sources, dropping repeats, until consumer returns false */
+    private static <T> void merge(List<Iterator<T>> sources, Function<T, String> key, Predicate<T> consumer) {
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(Comparator.comparing((Head<T> head) -> key.apply(head.value)));
+        for (Iterator<T> source : sources) {
+            if (source.hasNext())
+                heads.add(new Head<>(source.next(), source));
+        }
+        String last = null;
+        while (!heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            String current = key.apply(head.value);
+            if (!current.equals(last) && !consumer.test(head.value))
+                return;
+            last = current;
+            if (head.source.hasNext())
+                heads.add(new Head<>(head.source.next(), head.source));
+        }
+    }
+
+    private static final class Head<T> {
+        private final T value;
+        private final Iterator<T> source;
+
+        private Head(T value, Iterator<T> source) {
+            this.value = value;
+            this.source = source;
+        }
+    }
+
+    /* A name still waiting on its previous shard mid-rebalance is taken as well */
+    @Override
+    public int insert(String username, String pwd) {
+        return shards.write(username, placement -> {
+            if (placement.previous().isPresent() && findOn(placement.previous().get(), username).isPresent())
+                throw new DuplicateKeyException("Username " + username + " is taken on its previous shard");
+            return placement.owner().insertInto(USERS, USERNAME, PWD).values(username, pwd).execute();
+        });
+    }
+
+    /* A row still on its previous shard mid-rebalance is moved onto the owner with the new hash; the owner is
+     * overwritten, since a rebalance on another node may have copied the old hash there in the meantime
+     */
+    @Override
+    public int updatePwd(String username, String expectedPwd, String pwd) {
+        return shards.write(username, placement -> {
+            int updated = updatePwd(placement.owner(), username, expectedPwd, pwd);
+            if (updated > 0 || placement.previous().isEmpty() || findOn(placement.owner(), username).isPresent())
+                return updated;
+
+            int deleted = placement.previous().get().deleteFrom(USERS)
+                    .where(USERNAME.eq(username)).and(PWD.eq(expectedPwd)).execute();
+            if (deleted == 0)
+                return 0;
+            placement.owner().insertInto(USERS, USERNAME, PWD).values(username, pwd)
+                    .onConflict(USERNAME).doUpdate().set(PWD, pwd)
+                    .execute();
+            return 1;
+        });
+    }
+
+    private static int updatePwd(DSLContext dsl, String username, String expectedPwd, String pwd) {
+        return dsl.update(USERS).set(PWD, pwd).where(USERNAME.eq(username)).and(PWD.eq(expectedPwd)).execute();
+    }
+
+    @Override
+    public <S extends User> S save(S entity) {
+        return shards.write(entity.getUsername(), placement -> {
+            placement.owner().insertInto(USERS, USERNAME, PWD)
+                    .values(entity.getUsername(), entity.getPwd())
+                    .onConflict(USERNAME)
+                    .doUpdate()
+                    .set(PWD, entity.getPwd())
+                    .execute();
+            placement.previous()
+                    .ifPresent(previous -> previous.deleteFrom(USERS).where(USERNAME.eq(entity.getUsername())).execute());
+            return entity;
+        });
+    }
+
+    @Override
+    public <S extends User> Iterable<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        for (S entity : entities)
+            saved.add(save(entity));
+        return saved;
+    }
+
+    private static Optional<User> findOn(DSLContext dsl, String username) {
+        return dsl.select(USERNAME, PWD).from(USERS).where(USERNAME.eq(username)).fetchOptional()
+                .map(record -> new User(record.value1(), record.value2()));
+    }
+
+    /* Mid-rebalance a row can move between the two lookups, so a miss on both shards asks the new owner again.
+     * Both owners come from one placement: the rebalance may finish in between, and the row is then on the old one.
+     */
+    @Override
+    public Optional<User> findById(String username) {
+        UserShards.Placement placement = shards.placement(username);
+        Optional<User> user = findOn(placement.owner(), username);
+        if (user.isPresent() || placement.previous().isEmpty())
+            return user;
+
+        user = findOn(placement.previous().get(), username);
+        return user.isPresent() ? user : findOn(placement.owner(), username);
+    }
+
+    @Override
+    public boolean existsById(String username) {
+        return findById(username).isPresent();
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<Iterator<User>> slices = shards.fanOut(dsl -> dsl.select(USERNAME, PWD).from(USERS).orderBy(USERNAME)
+                .fetch(record -> new User(record.value1(), record.value2())).iterator());
+        List<User> users = new ArrayList<>();
+        merge(slices, User::getUsername, users::add);
+        return users;
+    }
+
+    @Override
+    public Iterable<User> findAllById(Iterable<String> usernames) {
+        List<User> users = new ArrayList<>();
+        for (String username : usernames)
+            findById(username).ifPresent(users::add);
+        return users;
+    }
+
+    @Override
+    public long count() {
+        return shards.fanOut(dsl -> dsl.fetchCount(USERS)).stream().mapToLong(Integer::longValue).sum();
+    }
+
+    @Override
+    public int deleteByUsername(String username) {
+        return shards.write(username, placement -> {
+            int deleted = placement.owner().deleteFrom(USERS).where(USERNAME.eq(username)).execute();
+            Optional<DSLContext> previous = placement.previous();
+            if (previous.isPresent())
+                deleted += previous.get().deleteFrom(USERS).where(USERNAME.eq(username)).execute();
+            return Math.min(deleted, 1);
+        });
+    }
+
+    @Override
+    public void deleteById(String username) {
+        if (deleteByUsername(username) == 0)
+            throw new EmptyResultDataAccessException(String.format("No %s entity with id %s exists!", User.class, username), 1);
+    }
+
+    @Override
+    public void delete(User entity) {
+        deleteByUsername(entity.getUsername());
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends User> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        shards.fanOut(dsl -> dsl.deleteFrom(USERS).execute());
+    }
+
+    @Override
+    public List<UserSummaryDTO> findPageAfter(String after, int limit) {
+        List<Iterator<String>> slices = shards.fanOut(dsl -> dsl.select(USERNAME).from(USERS).where(after(after))
+                .orderBy(USERNAME).limit(limit).fetch(USERNAME).iterator());
+        List<UserSummaryDTO> page = new ArrayList<>(limit);
+        merge(slices, Function.identity(), username -> {
+            page.add(new UserSummaryDTO(username));
+            return page.size() < limit;
+        });
+        return page;
+    }
+
+    @Override
+    public void forEachAfter(String after, Consumer<UserSummaryDTO> consumer) {
+        List<Cursor<Record1<String>>> cursors = shards.fanOut(dsl -> dsl.select(USERNAME).from(USERS).where(after(after))
+                .orderBy(USERNAME).fetchSize(usersProperties.getFetchSize()).fetchLazy());
+        try {
+            List<Iterator<String>> slices = cursors.stream()
+                    .map(cursor -> cursor.stream().map(Record1::value1).iterator())
+                    .collect(Collectors.toList());
+            merge(slices, Function.identity(), username -> {
+                consumer.accept(new UserSummaryDTO(username));
+                return true;
+            });
+        } finally {
+            cursors.forEach(Cursor::close);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.alexbgomes.starter.data.repository;
+
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Table;
+
+import java.sql.Timestamp;
+
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.name;
+import static org.jooq.impl.DSL.table;
+
+public final class UserChangelogTable {
+    public static final Table<Record> USERS_CHANGELOG = table(name("USERS_CHANGELOG"));
+    public static final Field<Long> SEQ = field(name("SEQ"), Long.class);
+    public static final Field<String> USERNAME = field(name("USERNAME"), String.class);
+    public static final Field<String> PWD = field(name("PWD"), String.class);
+    public static final Field<String> NODE_ID = field(name("NODE_ID"), String.class);
+    public static final Field<Timestamp> CHANGED_AT = field(name("CHANGED_AT"), Timestamp.class);
+
+    private UserChangelogTable() {
+
+    }
+}
@@ -0,0 +1,12 @@
+package com.alexbgomes.starter.data.repository;
+
+import com.alexbgomes.starter.data.dto.UserSummaryDTO;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface UserKeysetRepository {
+    List<UserSummaryDTO> findPageAfter(String after, int limit);
+
+    void forEachAfter(String after, Consumer<UserSummaryDTO> consumer);
+}
@@ -0,0 +1,55 @@
+package com.alexbgomes.starter.data.repository;
+
+import com.alexbgomes.starter.config.UsersProperties;
+import com.alexbgomes.starter.data.dto.UserSummaryDTO;
+import org.jooq.Condition;
+import org.jooq.Cursor;
+import org.jooq.DSLContext;
+import org.jooq.Record1;
+import org.jooq.impl.DSL;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.alexbgomes.starter.data.repository.UserTable.USERNAME;
+import static com.alexbgomes.starter.data.repository.UserTable.USERS;
+
+/* Keyset queries go straight through jOOQ so listing never hydrates managed entities
+ */
+public class UserKeysetRepositoryImpl implements UserKeysetRepository {
+    private final DSLContext dsl;
+    private final UsersProperties usersProperties;
+
+    public UserKeysetRepositoryImpl(DSLContext dsl, UsersProperties usersProperties) {
+        this.dsl = dsl;
+        this.usersProperties = usersProperties;
+    }
+
+    private Condition after(String after) {
+        return after == null ? DSL.noCondition() : USERNAME.gt(after);
+    }
+
+    @Override
+    public List<UserSummaryDTO> findPageAfter(String after, int limit) {
+        return dsl.select(USERNAME)
+                .from(USERS)
+                .where(after(after))
+                .orderBy(USERNAME)
+                .limit(limit)
+                .fetch(record -> new UserSummaryDTO(record.value1()));
+    }
+
+    @Override
+    public void forEachAfter(String after, Consumer<UserSummaryDTO> consumer) {
+        try (Cursor<Record1<String>> cursor = dsl.select(USERNAME)
+                .from(USERS)
+                .where(after(after))
+                .orderBy(USERNAME)
+                .fetchSize(usersProperties.getFetchSize())
+                .fetchLazy()) {
+            for (Record1<String> record : cursor) {
+                consumer.accept(new UserSummaryDTO(record.value1()));
+            }
+        }
+    }
+}
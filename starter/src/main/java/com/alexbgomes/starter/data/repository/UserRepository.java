@@ -1,10 +1,36 @@
 package com.alexbgomes.starter.data.repository;
 
 import com.alexbgomes.starter.data.entity.User;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
-public interface UserRepository extends CrudRepository<User, String> {
+public interface UserRepository extends CrudRepository<User, String>, UserKeysetRepository {
     List<User> findAll();
+
+    /* Plain INSERT for a new user: a taken username fails with DataIntegrityViolationException, never overwrites
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into USERS (USERNAME, PWD) values (:username, :pwd)", nativeQuery = true)
+    int insert(@Param("username") String username, @Param("pwd") String pwd);
+
+    /* Replaces the hash only while it is still expectedPwd, so a concurrent delete or password change wins;
+     * returns the rows updated, 0 or 1
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.pwd = :pwd where u.username = :username and u.pwd = :expectedPwd")
+    int updatePwd(@Param("username") String username, @Param("expectedPwd") String expectedPwd, @Param("pwd") String pwd);
+
+    /* Single DELETE statement, unlike deleteById which selects the entity first
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from User u where u.username = :username")
+    int deleteByUsername(@Param("username") String username);
 }
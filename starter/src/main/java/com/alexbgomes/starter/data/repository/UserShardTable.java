@@ -0,0 +1,22 @@
+package com.alexbgomes.starter.data.repository;
+
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Table;
+
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.name;
+import static org.jooq.impl.DSL.table;
+
+public final class UserShardTable {
+    public static final Table<Record> USER_SHARDS = table(name("USER_SHARDS"));
+    public static final Field<String> NAME = field(name("NAME"), String.class);
+    public static final Field<String> STATE = field(name("STATE"), String.class);
+
+    public static final String ACTIVE = "ACTIVE";
+    public static final String JOINING = "JOINING";
+
+    private UserShardTable() {
+
+    }
+}
@@ -0,0 +1,403 @@
+package com.alexbgomes.starter.data.repository;
+
+import com.alexbgomes.starter.config.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.Record1;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
+import org.jooq.impl.DefaultExecuteListenerProvider;
+import org.jooq.impl.SQLDataType;
+import org.jooq.tools.jdbc.JDBCUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jooq.JooqExceptionTranslator;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.alexbgomes.starter.data.repository.UserShardTable.ACTIVE;
+import static com.alexbgomes.starter.data.repository.UserShardTable.JOINING;
+import static com.alexbgomes.starter.data.repository.UserShardTable.NAME;
+import static com.alexbgomes.starter.data.repository.UserShardTable.STATE;
+import static com.alexbgomes.starter.data.repository.UserShardTable.USER_SHARDS;
+import static com.alexbgomes.starter.data.repository.UserTable.PWD;
+import static com.alexbgomes.starter.data.repository.UserTable.USERNAME;
+import static com.alexbgomes.starter.data.repository.UserTable.USERS;
+
+/* The shard databases behind ShardedUserRepository, enabled with starter.users.repository=sharded. Every configured
+ * shard gets its own pool, DSLContext and USERS table, and usernames are placed on the members with a HashRing.
+ * Membership lives in USER_SHARDS on the default database, which all nodes share: the first start enters the
+ * shards that are not standby, later starts and every refresh-interval take the ring from the table, so restarts
+ * and other nodes follow a change. A standby shard is joined with addShard, which operators reach through the
+ * shards actuator endpoint: it is entered as JOINING and the job waits two refresh intervals for the other nodes
+ * to switch before moving anything. Until it is ACTIVE the previous ring is kept: reads that miss on the new owner
+ * also look at the old one, and writes land on the new owner and clear the old copy.
+ * On this node every write and every move holds a per-username lock while a rebalance runs, so a row is never
+ * moved across a write to it. Writes from other nodes only ever delete the old copy, so a move whose source row is
+ * gone by the time it deletes it takes back its copy. A failed job keeps both rings and is resumed, from any node,
+ * by adding the same shard again.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@ConditionalOnProperty(prefix = "starter.users", name = "repository", havingValue = "sharded")
+public class UserShards {
+    private static final int USER_LOCK_STRIPES = 256;
+
+    private final ShardingProperties properties;
+    private final DSLContext dsl;
+    private final Map<String, HikariDataSource> dataSources = new ConcurrentHashMap<>();
+    private final Map<String, DSLContext> contexts = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final Lock[] userLocks = new Lock[USER_LOCK_STRIPES];
+    private final Counter moved;
+    private volatile Rings rings;
+    /* The shard a rebalance is moving rows onto, and the job while it runs on this node */
+    private String rebalanceTarget;
+    private CompletableFuture<Long> rebalance;
+
+    /* The current ring and, while a rebalance runs, the one it moves away from; swapped as one so a reader never
+     * pairs a new ring with an already cleared previous one. Writers hold the read side of writers for as long as
+     * they act on a placement from this pair.
+     */
+    @RequiredArgsConstructor
+    private static class Rings {
+        private final HashRing current;
+        private final HashRing previous;
+        private final ReadWriteLock writers = new ReentrantReadWriteLock();
+    }
+
+    /* Where a username lives: its owner, and the shard a running rebalance may not have moved it off yet */
+    @RequiredArgsConstructor
+    public static class Placement {
+        private final DSLContext owner;
+        private final DSLContext previous;
+
+        public DSLContext owner() {
+            return owner;
+        }
+
+        public Optional<DSLContext> previous() {
+            return Optional.ofNullable(previous);
+        }
+    }
+
+    @Autowired
+    public UserShards(ShardingProperties properties, DSLContext dsl, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.dsl = dsl;
+        dsl.createTableIfNotExists(USER_SHARDS)
+                .column(NAME, SQLDataType.VARCHAR(64).nullable(false))
+                .column(STATE, SQLDataType.VARCHAR(16).nullable(false))
+                .constraints(DSL.primaryKey(NAME))
+                .execute();
+        Map<String, String> members = members();
+        if (members.isEmpty()) {
+            for (ShardingProperties.Shard shard : properties.getShards()) {
+                if (!shard.isStandby())
+                    dsl.insertInto(USER_SHARDS, NAME, STATE).values(shard.getName(), ACTIVE).onConflict(NAME).doNothing().execute();
+            }
+            members = members();
+        }
+        if (members.isEmpty())
+            throw new IllegalStateException("starter.users.repository=sharded needs at least one starter.users.sharding.shards entry that is not standby");
+        for (String member : members.keySet()) {
+            if (configured(member).isEmpty())
+                throw new IllegalStateException("Shard " + member + " is on the ring but missing from starter.users.sharding.shards");
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "user-shard-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < userLocks.length; i++)
+            userLocks[i] = new ReentrantLock();
+        properties.getShards().forEach(this::open);
+        this.rings = ringsFor(members);
+        this.rebalanceTarget = joining(members);
+        if (rebalanceTarget != null)
+            log.warn("The rebalance onto shard {} is unfinished, add it again to resume it", rebalanceTarget);
+        this.moved = Counter.builder("users.shards.rebalance.moved").register(meterRegistry);
+        Gauge.builder("users.shards", this, shards -> shards.getShards().size()).register(meterRegistry);
+        Gauge.builder("users.shards.rebalancing", this, shards -> shards.isRebalancing() ? 1 : 0).register(meterRegistry);
+    }
+
+    private void open(ShardingProperties.Shard shard) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("shard-" + shard.getName());
+        dataSource.setJdbcUrl(shard.getUrl());
+        dataSource.setUsername(shard.getUsername());
+        dataSource.setPassword(shard.getPassword());
+        dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+        DSLContext dsl = DSL.using(new DefaultConfiguration()
+                .set(dataSource)
+                .set(JDBCUtils.dialect(shard.getUrl()))
+                .set(new DefaultExecuteListenerProvider(new JooqExceptionTranslator())));
+        dsl.createTableIfNotExists(USERS)
+                .column(USERNAME, SQLDataType.VARCHAR(30).nullable(false))
+                .column(PWD, SQLDataType.VARCHAR(255))
+                .constraints(DSL.primaryKey(USERNAME))
+                .execute();
+        dataSources.put(shard.getName(), dataSource);
+        contexts.put(shard.getName(), dsl);
+    }
+
+    private Optional<ShardingProperties.Shard> configured(String name) {
+        return properties.getShards().stream().filter(shard -> shard.getName().equals(name)).findFirst();
+    }
+
+    private Map<String, String> members() {
+        return dsl.select(NAME, STATE).from(USER_SHARDS).fetchMap(NAME, STATE);
+    }
+
+    /* Members in configuration order, so every node builds the same rings from the same table */
+    private Rings ringsFor(Map<String, String> members) {
+        List<String> current = new ArrayList<>();
+        List<String> active = new ArrayList<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            String state = members.get(shard.getName());
+            if (state != null)
+                current.add(shard.getName());
+            if (ACTIVE.equals(state))
+                active.add(shard.getName());
+        }
+        return new Rings(new HashRing(current, properties.getVirtualNodes()),
+                active.size() == current.size() ? null : new HashRing(active, properties.getVirtualNodes()));
+    }
+
+    private static String joining(Map<String, String> members) {
+        return members.entrySet().stream().filter(member -> JOINING.equals(member.getValue()))
+                .map(Map.Entry::getKey).sorted().findFirst().orElse(null);
+    }
+
+    private static List<String> shardsOf(HashRing ring) {
+        return ring == null ? null : ring.getShards();
+    }
+
+    /* Follows ring changes made by other nodes; a job running here already holds the rings it needs */
+    @Scheduled(fixedDelayString = "${starter.users.sharding.refresh-interval:PT5S}")
+    public synchronized void refresh() {
+        if (rebalance != null)
+            return;
+
+        Map<String, String> members = members();
+        Rings next = ringsFor(members);
+        if (shardsOf(next.current).equals(shardsOf(rings.current)) && Objects.equals(shardsOf(next.previous), shardsOf(rings.previous)))
+            return;
+
+        log.info("Shard ring changed elsewhere: {} (previous {})", shardsOf(next.current), shardsOf(next.previous));
+        rings = next;
+        rebalanceTarget = joining(members);
+    }
+
+    /* Owner and previous owner from the same pair of rings, for reads */
+    public Placement placement(String username) {
+        return placement(rings, username);
+    }
+
+    private Placement placement(Rings snapshot, String username) {
+        String owner = snapshot.current.shardFor(username);
+        String from = snapshot.previous == null ? owner : snapshot.previous.shardFor(username);
+        return new Placement(contexts.get(owner), from.equals(owner) ? null : contexts.get(from));
+    }
+
+    /* Runs a write against username's placement, counted as a writer of that ring pair and, while a rebalance runs,
+     * under the username's lock. A pair swapped out before the writer registered is dropped for the current one.
+     */
+    public <T> T write(String username, Function<Placement, T> write) {
+        while (true) {
+            Rings snapshot = rings;
+            Lock writers = snapshot.writers.readLock();
+            writers.lock();
+            try {
+                if (rings != snapshot)
+                    continue;
+                if (snapshot.previous == null)
+                    return write.apply(placement(snapshot, username));
+
+                Lock userLock = userLock(username);
+                userLock.lock();
+                try {
+                    return write.apply(placement(snapshot, username));
+                } finally {
+                    userLock.unlock();
+                }
+            } finally {
+                writers.unlock();
+            }
+        }
+    }
+
+    private Lock userLock(String username) {
+        return userLocks[(username.hashCode() & 0x7fffffff) % userLocks.length];
+    }
+
+    public boolean isRebalancing() {
+        return rings.previous != null;
+    }
+
+    public List<String> getShards() {
+        return rings.current.getShards();
+    }
+
+    /* The shard being joined, null while the ring is settled */
+    public synchronized String getRebalanceTarget() {
+        return rebalanceTarget;
+    }
+
+    /* Runs query on every shard in parallel, results in shard order */
+    public <T> List<T> fanOut(Function<DSLContext, T> query) {
+        List<CompletableFuture<T>> results = new ArrayList<>();
+        for (String shard : rings.current.getShards())
+            results.add(CompletableFuture.supplyAsync(() -> query.apply(contexts.get(shard)), executor));
+        return results.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+
+    /* Joins a configured standby shard; completes with the number of rows moved onto it. While a rebalance is
+     * unfinished only the same shard can be added again, which resumes the job where the rows still are.
+     */
+    public synchronized CompletableFuture<Long> addShard(String name) {
+        if (rebalance != null)
+            throw new IllegalStateException("A rebalance onto shard " + rebalanceTarget + " is already running");
+        if (configured(name).isEmpty())
+            throw new IllegalArgumentException("Shard " + name + " is missing from starter.users.sharding.shards");
+        if (isRebalancing() && !name.equals(rebalanceTarget))
+            throw new IllegalStateException("The rebalance onto shard " + rebalanceTarget + " is unfinished, add it again to resume it first");
+
+        Rings replaced = null;
+        if (!isRebalancing()) {
+            if (getShards().contains(name))
+                throw new IllegalArgumentException("Shard " + name + " is already on the ring");
+            dsl.insertInto(USER_SHARDS, NAME, STATE).values(name, JOINING).execute();
+            replaced = rings;
+            Map<String, String> members = members();
+            rings = ringsFor(members);
+            rebalanceTarget = joining(members);
+        }
+
+        Rings target = rings;
+        Rings drain = replaced;
+        rebalance = CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            if (drain != null)
+                awaitWriters(drain);
+            long count = rebalance(target.previous, target.current);
+            log.info("Rebalanced onto shard {}: {} rows moved in {} ms", name, count, (System.nanoTime() - start) / 1_000_000);
+            return count;
+        }, executor);
+        return rebalance.whenComplete((count, e) -> finish(name, target, e));
+    }
+
+    private synchronized void finish(String name, Rings target, Throwable e) {
+        rebalance = null;
+        if (e != null) {
+            log.error("Rebalance onto shard {} failed, reads keep falling back to the previous owners until it is resumed", name, e);
+            return;
+        }
+        dsl.update(USER_SHARDS).set(STATE, ACTIVE).where(NAME.eq(name)).execute();
+        rings = new Rings(target.current, null);
+        rebalanceTarget = null;
+    }
+
+    /* Writers here that took the old pair before the swap finish first, later ones see the swap and use the new pair.
+     * Other nodes switch on their next refresh, so the job gives them two intervals.
+     */
+    private void awaitWriters(Rings old) {
+        Lock drained = old.writers.writeLock();
+        drained.lock();
+        drained.unlock();
+        try {
+            Thread.sleep(properties.getRefreshInterval().multipliedBy(2).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the other nodes to switch rings", e);
+        }
+    }
+
+    private long rebalance(HashRing from, HashRing to) {
+        long count = 0;
+        for (String source : from.getShards()) {
+            DSLContext sourceDsl = contexts.get(source);
+            String after = null;
+            List<String> usernames;
+            do {
+                usernames = sourceDsl.select(USERNAME)
+                        .from(USERS)
+                        .where(after == null ? DSL.noCondition() : USERNAME.gt(after))
+                        .orderBy(USERNAME)
+                        .limit(properties.getRebalanceBatchSize())
+                        .fetch(USERNAME);
+                for (String username : usernames) {
+                    String target = to.shardFor(username);
+                    if (!target.equals(source) && move(sourceDsl, contexts.get(target), username))
+                        count++;
+                    after = username;
+                }
+            } while (usernames.size() == properties.getRebalanceBatchSize());
+        }
+        moved.increment(count);
+        return count;
+    }
+
+    /* Under the username's lock nothing else on this node writes the row, so it is read fresh and moved as it is
+     * now. A row already on the target was written through the new ring after this one, so only the old copy goes.
+     * If the old copy is gone by the time it is deleted here, another node wrote or removed the user meanwhile, and
+     * the copy is taken back unless that write already replaced it. A crash between copy and delete leaves both,
+     * which the resumed job settles the same way.
+     */
+    private boolean move(DSLContext source, DSLContext target, String username) {
+        Lock userLock = userLock(username);
+        userLock.lock();
+        try {
+            Optional<Record1<String>> row = source.select(PWD).from(USERS).where(USERNAME.eq(username)).fetchOptional();
+            if (row.isEmpty())
+                return false;
+
+            String pwd = row.get().value1();
+            int copied = target.insertInto(USERS, USERNAME, PWD)
+                    .select(DSL.select(DSL.val(username), DSL.val(pwd))
+                            .whereNotExists(DSL.selectOne().from(USERS).where(USERNAME.eq(username))))
+                    .execute();
+            int deleted = source.deleteFrom(USERS).where(USERNAME.eq(username)).and(PWD.isNotDistinctFrom(pwd)).execute();
+            if (deleted == 0 && copied > 0) {
+                target.deleteFrom(USERS).where(USERNAME.eq(username)).and(PWD.isNotDistinctFrom(pwd)).execute();
+                return false;
+            }
+            return copied > 0;
+        } finally {
+            userLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        dataSources.values().forEach(HikariDataSource::close);
+    }
+}
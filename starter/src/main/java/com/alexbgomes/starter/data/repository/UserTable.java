@@ -0,0 +1,19 @@
+package com.alexbgomes.starter.data.repository;
+
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Table;
+
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.name;
+import static org.jooq.impl.DSL.table;
+
+public final class UserTable {
+    public static final Table<Record> USERS = table(name("USERS"));
+    public static final Field<String> USERNAME = field(name("USERNAME"), String.class);
+    public static final Field<String> PWD = field(name("PWD"), String.class);
+
+    private UserTable() {
+
+    }
+}
@@ -1,6 +1,15 @@
 DROP TABLE IF EXISTS USERS;
+DROP TABLE IF EXISTS USERS_CHANGELOG;
 
 CREATE TABLE USERS(
     USERNAME VARCHAR(30) PRIMARY KEY NOT NULL,
-    PWD VARCHAR(72)
-);
\ No newline at end of file
+    PWD VARCHAR(255)
+);
+
+CREATE TABLE USERS_CHANGELOG(
+    SEQ BIGINT AUTO_INCREMENT PRIMARY KEY,
+    USERNAME VARCHAR(30) NOT NULL,
+    PWD VARCHAR(255),
+    NODE_ID VARCHAR(36) NOT NULL,
+    CHANGED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
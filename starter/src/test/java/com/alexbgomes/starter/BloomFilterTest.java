@@ -0,0 +1,25 @@
+package com.alexbgomes.starter;
+
+import com.alexbgomes.starter.business.cache.BloomFilter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+    @Test
+    void testMightContain_noFalseNegatives() {
+        final BloomFilter bloomFilter = new BloomFilter(10_000, 0.01, Long.MAX_VALUE);
+        for (int i = 0; i < 10_000; i++)
+            bloomFilter.put("user" + i);
+
+        for (int i = 0; i < 10_000; i++)
+            Assertions.assertTrue(bloomFilter.mightContain("user" + i));
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (bloomFilter.mightContain("other" + i))
+                falsePositives++;
+        }
+        Assertions.assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+        Assertions.assertEquals(0.01, bloomFilter.expectedFalsePositiveRate(), 0.005);
+    }
+}
@@ -0,0 +1,70 @@
+package com.alexbgomes.starter;
+
+import com.alexbgomes.starter.business.cache.UserCache;
+import com.alexbgomes.starter.business.service.CredentialVerifier;
+import com.alexbgomes.starter.business.service.UserService;
+import com.alexbgomes.starter.data.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@SpringBootTest(properties = {"starter.users.credentials.verified-cache.enabled=true", "starter.users.credentials.verified-cache.ttl=1m"})
+class CredentialVerifierTest {
+    @Autowired
+    private CredentialVerifier credentialVerifier;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private double count(String result) {
+        Counter counter = meterRegistry.get("users.credentials.checks").tag("result", result).counter();
+        return counter.count();
+    }
+
+    @Test
+    void testMatches_joinsRunningCheckThenServesFromCacheUntilRemoved() {
+        final String username = "credentialuser1";
+        final String pwd = "P@ssword12";
+        Assertions.assertEquals(HttpStatus.CREATED, userService.setUser(new User(username, pwd)).join().getStatusCode());
+        final String storedPwd = userCache.getPwd(username).orElseThrow();
+
+        double computed = count("computed");
+        double joined = count("joined");
+        double cached = count("cached");
+
+        List<CompletableFuture<Boolean>> checks = new ArrayList<>();
+        for (int i = 0; i < 8; i++)
+            checks.add(credentialVerifier.matches(username, pwd, storedPwd));
+        for (CompletableFuture<Boolean> check : checks)
+            Assertions.assertTrue(check.join());
+        Assertions.assertEquals(computed + 1, count("computed"));
+        Assertions.assertEquals(joined + 7, count("joined"));
+
+        Assertions.assertTrue(credentialVerifier.matches(username, pwd, storedPwd).join());
+        Assertions.assertEquals(cached + 1, count("cached"));
+        Assertions.assertTrue(meterRegistry.get("users.credentials.cache.bytes").gauge().value() > 0);
+
+        Assertions.assertFalse(credentialVerifier.matches(username, "P@ssword13", storedPwd).join());
+        Assertions.assertEquals(computed + 2, count("computed"));
+
+        Assertions.assertEquals(HttpStatus.OK, userService.rmUser(new User(username, pwd)).join().getStatusCode());
+        Assertions.assertEquals(cached + 2, count("cached"));
+
+        Assertions.assertTrue(credentialVerifier.matches(username, pwd, storedPwd).join());
+        Assertions.assertEquals(computed + 3, count("computed"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.alexbgomes.starter;
+
+import com.alexbgomes.starter.business.domain.ValidationLevel;
+import com.alexbgomes.starter.business.service.GroupCommitWriter;
+import com.alexbgomes.starter.business.service.UserService;
+import com.alexbgomes.starter.business.validation.UserValidator;
+import com.alexbgomes.starter.data.entity.User;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@SpringBootTest(properties = {"starter.users.group-commit.enabled=true", "starter.users.group-commit.max-delay=200ms"})
+class GroupCommitTest {
+    @Autowired
+    private GroupCommitWriter groupCommitWriter;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserValidator userValidator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testInsert_oneBatchWithIndividualOutcomes() {
+        final String pwd = "{noop}P@ssword12";
+        DistributionSummary batchSize = meterRegistry.get("users.groupcommit.batch.size").summary();
+        final long batchesBefore = batchSize.count();
+
+        List<CompletableFuture<Boolean>> created = new ArrayList<>();
+        for (int i = 1; i <= 5; i++)
+            created.add(groupCommitWriter.insert(new User("groupuser" + i, pwd)));
+        CompletableFuture<Boolean> duplicateInBatch = groupCommitWriter.insert(new User("groupuser1", pwd));
+        CompletableFuture<Boolean> existing = groupCommitWriter.insert(new User("admin", pwd));
+
+        try {
+            for (CompletableFuture<Boolean> result : created)
+                Assertions.assertTrue(result.join());
+            Assertions.assertFalse(duplicateInBatch.join());
+            Assertions.assertFalse(existing.join());
+            Assertions.assertEquals(batchesBefore + 1, batchSize.count());
+            Assertions.assertEquals(7, batchSize.max());
+        } finally {
+            for (int i = 1; i <= 5; i++)
+                userService.rmUser("groupuser" + i).join();
+        }
+    }
+
+    @Test
+    void testSetUser_registersThroughGroupCommit() {
+        final String username = "groupuser6";
+        final String pwd = "P@ssword12";
+
+        ResponseEntity<String> response = userService.setUser(new User(username, pwd)).join();
+        Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        try {
+            response = userService.setUser(new User(username, pwd)).join();
+            Assertions.assertEquals(userValidator.getResponse(ValidationLevel.USERTAKEN, username).get(), response);
+
+            response = userService.loginUser(new User(username, pwd)).join();
+            Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        } finally {
+            userService.rmUser(username).join();
+        }
+    }
+}
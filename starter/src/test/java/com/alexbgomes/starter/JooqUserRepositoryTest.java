@@ -0,0 +1,51 @@
+package com.alexbgomes.starter;
+
+import com.alexbgomes.starter.data.entity.User;
+import com.alexbgomes.starter.data.repository.JooqUserRepository;
+import com.alexbgomes.starter.data.repository.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.List;
+
+@SpringBootTest(properties = "starter.users.repository=jooq")
+class JooqUserRepositoryTest {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testCrud() {
+        Assertions.assertTrue(userRepository instanceof JooqUserRepository);
+        final long countBefore = userRepository.count();
+
+        userRepository.save(new User("jooquser1", "{noop}P@ssword12"));
+        userRepository.saveAll(List.of(new User("jooquser2", "{noop}P@ssword12"), new User("jooquser1", "{noop}P@ssword13")));
+        Assertions.assertEquals(countBefore + 2, userRepository.count());
+        Assertions.assertEquals("{noop}P@ssword13", userRepository.findById("jooquser1").orElseThrow().getPwd());
+        Assertions.assertTrue(userRepository.findById("missinguser").isEmpty());
+        Assertions.assertEquals(2, userRepository.findPageAfter("jooquser", 10).size());
+
+        Assertions.assertEquals(1, userRepository.deleteByUsername("jooquser1"));
+        Assertions.assertEquals(0, userRepository.deleteByUsername("jooquser1"));
+        userRepository.deleteById("jooquser2");
+        Assertions.assertEquals(countBefore, userRepository.count());
+    }
+
+    @Test
+    void testInsertAndConditionalUpdate() {
+        Assertions.assertEquals(1, userRepository.insert("jooquser3", "{noop}P@ssword12"));
+        try {
+            Assertions.assertThrows(DuplicateKeyException.class, () -> userRepository.insert("jooquser3", "{noop}P@ssword13"));
+            Assertions.assertEquals(0, userRepository.updatePwd("jooquser3", "{noop}P@ssword13", "{noop}P@ssword14"));
+            Assertions.assertEquals(1, userRepository.updatePwd("jooquser3", "{noop}P@ssword12", "{noop}P@ssword14"));
+            Assertions.assertEquals("{noop}P@ssword14", userRepository.findById("jooquser3").orElseThrow().getPwd());
+        } finally {
+            userRepository.deleteByUsername("jooquser3");
+        }
+        Assertions.assertEquals(0, userRepository.updatePwd("jooquser3", "{noop}P@ssword14", "{noop}P@ssword15"));
+        Assertions.assertTrue(userRepository.findById("jooquser3").isEmpty());
+    }
+}
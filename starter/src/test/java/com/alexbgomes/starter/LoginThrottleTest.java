@@ -0,0 +1,60 @@
+package com.alexbgomes.starter;
+
+import com.alexbgomes.starter.data.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+/* Runs on a real Tomcat, since the forwarded address is resolved by its RemoteIpValve rather than by a filter.
+ * Requests come from localhost, an internal proxy, so their X-Forwarded-For names the client.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "starter.throttle.login.address.burst=3",
+        "starter.throttle.login.address.interval=1h"})
+class LoginThrottleTest {
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private double usernameKeys() {
+        return meterRegistry.get("users.throttle.keys").tag("key", "username").gauge().value();
+    }
+
+    private HttpStatus login(String forwardedFor, String username) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-For", forwardedFor);
+        return restTemplate.postForEntity("/api/login", new HttpEntity<>(new User(username, "P@ssword12"), headers), String.class)
+                .getStatusCode();
+    }
+
+    @Test
+    void testLogin_clientsBehindOneProxyThrottledSeparately() {
+        for (int i = 0; i < 3; i++)
+            Assertions.assertEquals(HttpStatus.NOT_FOUND, login("203.0.113.7", "proxieduser" + i));
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS, login("203.0.113.7", "proxieduser3"));
+
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, login("198.51.100.9", "proxieduser4"));
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, login("198.51.100.9, 10.1.2.3", "proxieduser5"));
+    }
+
+    @Test
+    void testLogin_malformedUsernameNeverKeyed() {
+        final double keys = usernameKeys();
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, login("192.0.2.5", "x".repeat(100_000)));
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, login("192.0.2.5", "not a username"));
+        Assertions.assertEquals(keys, usernameKeys());
+
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, login("192.0.2.5", "keyeduser1"));
+        Assertions.assertEquals(keys + 1, usernameKeys());
+    }
+}
@@ -0,0 +1,52 @@
+package com.alexbgomes.starter;
+
+import com.alexbgomes.starter.business.service.BlockingIoExecutor;
+import com.alexbgomes.starter.business.service.UserService;
+import com.alexbgomes.starter.data.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(properties = "starter.execution.mode=offload")
+class OffloadExecutionTest {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BlockingIoExecutor blockingIoExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private double ioTasksCompleted() {
+        return meterRegistry.get("executor.completed").tag("name", "userIo").functionCounter().count();
+    }
+
+    @Test
+    void testUserLifecycle_repositoryCallsOffloaded() throws Exception {
+        final String username = "offloaduser1";
+        final String pwd = "P@ssword12";
+        Assertions.assertTrue(blockingIoExecutor.isOffloaded());
+        final double completedBefore = ioTasksCompleted();
+
+        ResponseEntity<String> response = userService.setUser(new User(username, pwd)).join();
+        Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
+
+        response = userService.loginUser(new User(username, pwd)).join();
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        response = userService.rmUser(new User(username, pwd)).join();
+        Assertions.assertEquals(String.format("User %s removed.", username), response.getBody());
+
+        /* lookup + hash handoff + save, lookup + hash handoff, lookup + hash handoff + delete;
+         * the pool counts a task just after its future completes
+         */
+        for (int i = 0; i < 50 && ioTasksCompleted() < completedBefore + 8; i++)
+            Thread.sleep(10);
+        Assertions.assertEquals(completedBefore + 8, ioTasksCompleted());
+    }
+}
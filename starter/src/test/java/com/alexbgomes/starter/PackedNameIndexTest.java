@@ -0,0 +1,45 @@
+package com.alexbgomes.starter;
+
+import com.alexbgomes.starter.business.cache.PackedNameIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+class PackedNameIndexTest {
+    private static List<String> search(PackedNameIndex index, String prefix, int limit) {
+        List<String> matches = new ArrayList<>();
+        index.forEachWithPrefix(prefix, name -> {
+            matches.add(name);
+            return matches.size() < limit;
+        });
+        return matches;
+    }
+
+    @Test
+    void testForEachWithPrefix_matchesSortedSet() {
+        final TreeSet<String> names = new TreeSet<>();
+        for (int i = 0; i < 10_000; i++)
+            names.add("user" + Integer.toString(i * 7919 % 100_000, 36));
+        names.add("admin");
+        final PackedNameIndex.Builder builder = PackedNameIndex.builder();
+        names.forEach(builder::add);
+        builder.add("zzzz");
+        builder.add("zzzz");
+        names.add("zzzz");
+        final PackedNameIndex index = builder.build();
+
+        Assertions.assertEquals(names.size(), index.size());
+        Assertions.assertEquals(new ArrayList<>(names), search(index, "", Integer.MAX_VALUE));
+        for (String prefix : new String[]{"user", "user1", "user2a", "userz", "admin", "adm", "a", "b", "zzzzz", "0"}) {
+            List<String> expected = names.tailSet(prefix).stream().filter(name -> name.startsWith(prefix)).collect(Collectors.toList());
+            Assertions.assertEquals(expected, search(index, prefix, Integer.MAX_VALUE), prefix);
+            Assertions.assertEquals(expected.subList(0, Math.min(3, expected.size())), search(index, prefix, 3), prefix);
+        }
+        Assertions.assertTrue(index.getMemoryBytes() < names.size() * 8L, "bytes: " + index.getMemoryBytes());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.add("aaaa"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.alexbgomes.starter;
+
+import com.alexbgomes.starter.business.service.PasswordHasher;
+import com.alexbgomes.starter.data.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"starter.password.hashing.threads=1", "starter.password.hashing.queue-capacity=1",
+        "starter.password.hashing.retry-after=3s"})
+@AutoConfigureMockMvc
+class PasswordHashingTest {
+    /* Cost 12: a match against it keeps the single hashing thread busy far longer than the request takes */
+    private static final String SLOW_HASH = "{bcrypt}$2a$12$abcdefghijklmnopqrstuuMUMnF0zhYvuSqGiT1Z3NWXIDpJiGd2W";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Test
+    void testRegister_fullQueueAnswers503WithRetryAfter() throws Exception {
+        /* One slow match on the thread and one in the queue; hashes left over from startup can hold them back */
+        List<CompletableFuture<Boolean>> blockers = new ArrayList<>();
+        while (blockers.size() < 2) {
+            try {
+                blockers.add(passwordHasher.matches("P@ssword12", SLOW_HASH));
+            } catch (RejectedExecutionException e) {
+                Thread.sleep(10);
+            }
+        }
+
+        final User user = new User("saturateduser1", "P@ssword12");
+        MvcResult mvcResult = mockMvc.perform(post("/api/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andDo(print()).andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"))
+                .andExpect(content().string("Server is busy, please retry later."));
+
+        blockers.forEach(CompletableFuture::join);
+    }
+
+    @Test
+    void testEncode_completesOffTheHashingThread() {
+        String thread = passwordHasher.encode("P@ssword12").thenApply(hash -> Thread.currentThread().getName()).join();
+        Assertions.assertFalse(thread.startsWith("password-hashing-"), thread);
+    }
+}
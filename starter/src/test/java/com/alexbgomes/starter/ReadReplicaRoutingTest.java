@@ -0,0 +1,124 @@
+package com.alexbgomes.starter;
+
+import com.alexbgomes.starter.business.cache.UserCache;
+import com.alexbgomes.starter.business.service.ReadRouting;
+import com.alexbgomes.starter.business.service.UserService;
+import com.alexbgomes.starter.data.entity.User;
+import com.alexbgomes.starter.data.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/* A primary and one working replica on separate H2 databases, plus a replica that cannot be reached. Nothing
+ * replicates between them, so which database answered shows from the rows: replicaonly1 only exists on the replica.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicatest-primary",
+        "starter.datasource.read.enabled=true",
+        "starter.datasource.read.replicas[0].url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "starter.datasource.read.replicas[1].url=jdbc:h2:mem:replicatest-missing;IFEXISTS=TRUE",
+        "starter.datasource.read.replicas[1].connection-timeout=250ms",
+        "starter.datasource.read.retry-after=1m",
+        "starter.datasource.read.sticky-window=1s"})
+class ReadReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:replicatest-replica;DB_CLOSE_DELAY=-1";
+
+    static {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE USERS(USERNAME VARCHAR(30) PRIMARY KEY NOT NULL, PWD VARCHAR(255))");
+            statement.execute("INSERT INTO USERS(USERNAME, PWD) VALUES('replicaonly1', '{noop}P@ssword12')");
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Autowired
+    private ReadRouting readRouting;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private double reads(String target) {
+        return meterRegistry.get("users.datasource.reads").tag("target", target).counter().count();
+    }
+
+    @Test
+    void testReads_routedToReplicaWithFallback() {
+        Assertions.assertTrue(userRepository.findById("replicaonly1").isEmpty(), "unmarked reads use the primary");
+
+        List<Boolean> found = new ArrayList<>();
+        for (int i = 0; i < 6; i++)
+            found.add(readRouting.read(() -> userRepository.findById("replicaonly1")).isPresent());
+
+        Assertions.assertTrue(reads("fallback") >= 1, "the unreachable replica never fell back");
+        Assertions.assertTrue(reads("replica") >= 4);
+        Assertions.assertEquals(List.of(true, true, true), found.subList(3, 6), "the failed replica was not skipped: " + found);
+    }
+
+    @Test
+    void testCredentialChecks_readPrimaryAndNeverCacheReplicaAnswers() {
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, userService.loginUser(new User("replicaonly1", "P@ssword12")).join().getStatusCode());
+        /* admitted by the filter and evicted, so the next lookup is a miss loaded inside a replica read */
+        userCache.onTaken("replicaonly1");
+        Assertions.assertTrue(readRouting.read(() -> userCache.getPwd("replicaonly1")).isEmpty(), "the cache loaded from a replica");
+
+        Assertions.assertEquals(HttpStatus.CREATED, userService.setUser(new User("replicaonly1", "P@ssword13")).join().getStatusCode());
+        try {
+            Assertions.assertEquals(HttpStatus.OK, userService.loginUser(new User("replicaonly1", "P@ssword13")).join().getStatusCode());
+        } finally {
+            userRepository.deleteById("replicaonly1");
+        }
+    }
+
+    @Test
+    void testUsersPage_neverCachedFromLaggingReplica() {
+        /* the replica lags: it has not seen admin yet and still holds replicaonly1 */
+        for (int limit = 1; limit <= 4; limit++) {
+            String page = new String(userService.getUsersPage(null, limit).getBody(), StandardCharsets.UTF_8);
+            Assertions.assertTrue(page.contains("\"admin\""), page);
+            Assertions.assertFalse(page.contains("replicaonly1"), page);
+        }
+    }
+
+    @Test
+    void testReads_stickToPrimaryAfterOwnWrite() throws InterruptedException {
+        final String username = "stickyuser1";
+        /* round-robin reaches the unreachable replica within two reads, after which only the working one is used */
+        readRouting.read(() -> userRepository.findById(username));
+        readRouting.read(() -> userRepository.findById(username));
+
+        Assertions.assertEquals(HttpStatus.CREATED, userService.setUser(new User(username, "P@ssword12")).join().getStatusCode());
+        try {
+            Assertions.assertTrue(readRouting.isSticky(username));
+            Assertions.assertTrue(readRouting.read(username, () -> userRepository.findById(username)).isPresent());
+            Assertions.assertTrue(readRouting.read(() -> userRepository.findById(username)).isEmpty());
+
+            Thread.sleep(1200);
+            Assertions.assertFalse(readRouting.isSticky(username));
+            Assertions.assertTrue(readRouting.read(username, () -> userRepository.findById(username)).isEmpty());
+        } finally {
+            userService.rmUser(username).join();
+        }
+    }
+}
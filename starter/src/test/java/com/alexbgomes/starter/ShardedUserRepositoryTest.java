@@ -0,0 +1,144 @@
+package com.alexbgomes.starter;
+
+import com.alexbgomes.starter.config.ShardingProperties;
+import com.alexbgomes.starter.data.dto.UserSummaryDTO;
+import com.alexbgomes.starter.data.entity.User;
+import com.alexbgomes.starter.data.repository.ShardedUserRepository;
+import com.alexbgomes.starter.data.repository.UserRepository;
+import com.alexbgomes.starter.data.repository.UserShards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static com.alexbgomes.starter.data.repository.UserTable.USERS;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "starter.users.repository=sharded",
+        "starter.users.sharding.shards[0].name=shard-a",
+        "starter.users.sharding.shards[0].url=jdbc:h2:mem:shardtest-a",
+        "starter.users.sharding.shards[1].name=shard-b",
+        "starter.users.sharding.shards[1].url=jdbc:h2:mem:shardtest-b",
+        "starter.users.sharding.shards[2].name=shard-c",
+        "starter.users.sharding.shards[2].url=jdbc:h2:mem:shardtest-c",
+        "starter.users.sharding.shards[2].standby=true",
+        "starter.users.sharding.rebalance-batch-size=50",
+        "starter.users.sharding.refresh-interval=PT0.1S",
+        "management.endpoints.web.exposure.include=shards"})
+@AutoConfigureMockMvc
+class ShardedUserRepositoryTest {
+    private static final int USERS_COUNT = 300;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserShards userShards;
+
+    @Autowired
+    private ShardingProperties shardingProperties;
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private List<Integer> rowsPerShard() {
+        return userShards.fanOut(dsl -> dsl.fetchCount(USERS));
+    }
+
+    @Test
+    void testShardedRepository_routesMergesAndRebalances() throws Exception {
+        Assertions.assertTrue(userRepository instanceof ShardedUserRepository);
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < USERS_COUNT; i++)
+            usernames.add(String.format("sharduser%04d", i));
+        usernames.forEach(username -> userRepository.save(new User(username, "{noop}P@ssword12")));
+
+        UserShards otherNode = new UserShards(shardingProperties, dsl, new SimpleMeterRegistry());
+        try {
+            Assertions.assertEquals(USERS_COUNT, userRepository.count());
+            rowsPerShard().forEach(rows -> Assertions.assertTrue(rows > USERS_COUNT / 4, "skewed shards: " + rowsPerShard()));
+            Assertions.assertEquals(usernames.subList(0, 50), userRepository.findPageAfter(null, 50).stream()
+                    .map(UserSummaryDTO::getUsername).collect(Collectors.toList()));
+            Assertions.assertEquals(usernames.subList(101, 111), userRepository.findPageAfter("sharduser0100", 10).stream()
+                    .map(UserSummaryDTO::getUsername).collect(Collectors.toList()));
+            List<String> streamed = new ArrayList<>();
+            userRepository.forEachAfter(null, summary -> streamed.add(summary.getUsername()));
+            Assertions.assertEquals(usernames, streamed);
+
+            Assertions.assertEquals(List.of("shard-a", "shard-b"), userShards.getShards());
+            CompletableFuture<Long> rebalance = userShards.addShard("shard-c");
+            Assertions.assertThrows(IllegalStateException.class, () -> userShards.addShard("shard-c"));
+            /* a second node sharing the default database follows the join from the membership table */
+            otherNode.refresh();
+            Assertions.assertTrue(otherNode.isRebalancing());
+            Assertions.assertEquals("shard-c", otherNode.getRebalanceTarget());
+
+            Map<String, String> written = new HashMap<>();
+            for (int i = 0, round = 0; !rebalance.isDone(); i = (i + 1) % USERS_COUNT) {
+                String username = usernames.get(i);
+                Assertions.assertTrue(userRepository.findById(username).isPresent(), "lost mid-rebalance: " + username);
+                if (i == 0)
+                    round++;
+                if (i % 20 == 0) {
+                    String pwd = "{noop}N3wP@ssword" + round;
+                    userRepository.save(new User(username, pwd));
+                    written.put(username, pwd);
+                } else if (i % 20 == 10) {
+                    String expected = written.getOrDefault(username, "{noop}P@ssword12");
+                    String pwd = "{noop}Upd4ted" + round;
+                    Assertions.assertEquals(1, userRepository.updatePwd(username, expected, pwd), username);
+                    written.put(username, pwd);
+                }
+            }
+            long moved = rebalance.join();
+            Assertions.assertFalse(userShards.isRebalancing());
+            otherNode.refresh();
+            Assertions.assertFalse(otherNode.isRebalancing());
+            Assertions.assertEquals(userShards.getShards(), otherNode.getShards());
+            Assertions.assertEquals(3, rowsPerShard().size());
+            /* saves made during the rebalance land on the new shard directly, so it can hold more than was moved */
+            final int rowsOnNewShard = rowsPerShard().get(2);
+            Assertions.assertTrue(moved <= rowsOnNewShard, String.format("moved %d, new shard has %d", moved, rowsOnNewShard));
+            Assertions.assertTrue(rowsOnNewShard > USERS_COUNT / 6 && rowsOnNewShard < USERS_COUNT / 2, "new shard has " + rowsOnNewShard);
+            Assertions.assertEquals(USERS_COUNT, userRepository.count());
+            for (String username : usernames)
+                Assertions.assertEquals(written.getOrDefault(username, "{noop}P@ssword12"), userRepository.findById(username).orElseThrow().getPwd(), username);
+            Assertions.assertEquals(usernames, userRepository.findAll().stream().map(User::getUsername).collect(Collectors.toList()));
+
+            Assertions.assertEquals(1, userRepository.deleteByUsername("sharduser0000"));
+            Assertions.assertTrue(userRepository.findById("sharduser0000").isEmpty());
+
+            mockMvc.perform(get("/actuator/shards"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.shards", hasSize(3)))
+                    .andExpect(jsonPath("$.rebalancing").isEmpty());
+            mockMvc.perform(post("/actuator/shards").contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"shard-c\"}"))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(post("/actuator/shards").contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"shard-x\"}"))
+                    .andExpect(status().isBadRequest());
+        } finally {
+            otherNode.shutdown();
+            userRepository.deleteAll();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.alexbgomes.starter;
+
+import com.alexbgomes.starter.business.service.UserWarmup;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicReference;
+
+/* Boots the prod profile the way main does and fails when startup time or heap after boot passes a budget,
+ * or when readiness flips before the warm-up has run.
+ * The budgets are deliberately loose for shared CI machines; tighten them with -Dstartup.max-millis and
+ * -Dstartup.max-heap-mb where the hardware is known. The heap figure only means something in a JVM of its own,
+ * so Gradle runs this class in the startupTest task rather than next to the cached contexts of the other tests.
+ */
+class StartupTest {
+    private static final Logger log = LoggerFactory.getLogger(StartupTest.class);
+    private static final long MAX_MILLIS = Long.getLong("startup.max-millis", 20_000);
+    private static final long MAX_HEAP_MB = Long.getLong("startup.max-heap-mb", 256);
+
+    private static String tags(StartupStep step) {
+        StringJoiner joiner = new StringJoiner(", ");
+        step.getTags().forEach(tag -> joiner.add(tag.getKey() + "=" + tag.getValue()));
+        return joiner.toString();
+    }
+
+    @Test
+    void testProdProfile_startsWithinBudget() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(StarterApplication.STARTUP_EVENTS);
+        AtomicReference<UserWarmup.Report> reportWhenReady = new AtomicReference<>();
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(StarterApplication.class)
+                .profiles("prod")
+                .properties("server.port=0", "spring.datasource.url=jdbc:h2:mem:startuptest")
+                .applicationStartup(startup)
+                .listeners((ApplicationListener<AvailabilityChangeEvent<ReadinessState>>) event -> {
+                    if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC)
+                        reportWhenReady.set(((ApplicationContext) event.getSource()).getBean(UserWarmup.class).getReport());
+                })
+                .run()) {
+            long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            long heapMb = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+
+            List<StartupTimeline.TimelineEvent> events = startup.getBufferedTimeline().getEvents();
+            events.stream()
+                    .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                    .limit(10)
+                    .forEach(event -> log.info("{} ms {} {}", event.getDuration().toMillis(), event.getStartupStep().getName(), tags(event.getStartupStep())));
+            log.info("Started prod profile in {} ms, {} MB heap used after boot, {} startup steps", elapsedMillis, heapMb, events.size());
+
+            Assertions.assertFalse(events.isEmpty());
+            Assertions.assertNotNull(reportWhenReady.get(), "readiness flipped before the warm-up finished");
+            Assertions.assertEquals(ReadinessState.ACCEPTING_TRAFFIC, context.getBean(ApplicationAvailability.class).getReadinessState());
+            Assertions.assertTrue(elapsedMillis <= MAX_MILLIS, String.format("startup took %d ms, budget %d ms", elapsedMillis, MAX_MILLIS));
+            Assertions.assertTrue(heapMb <= MAX_HEAP_MB, String.format("heap after boot %d MB, budget %d MB", heapMb, MAX_HEAP_MB));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.alexbgomes.starter;
+
+import com.alexbgomes.starter.business.cache.UserCache;
+import com.alexbgomes.starter.business.service.UserImportService;
+import com.alexbgomes.starter.business.service.UserService;
+import com.alexbgomes.starter.data.entity.User;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static com.alexbgomes.starter.data.repository.UserChangelogTable.USERNAME;
+import static com.alexbgomes.starter.data.repository.UserChangelogTable.USERS_CHANGELOG;
+
+/* Two nodes on one H2 database: each one's writes reach the other's caches through the change log.
+ */
+class UserChangelogTest {
+    private static final String DATABASE = "spring.datasource.url=jdbc:h2:mem:changelogtest;DB_CLOSE_DELAY=-1";
+
+    private static ConfigurableApplicationContext node(String... properties) {
+        return new SpringApplicationBuilder(StarterApplication.class)
+                .properties("server.port=0", DATABASE, "starter.users.changelog.enabled=true", "starter.users.changelog.poll-interval=PT0.05S")
+                .properties(properties)
+                .run();
+    }
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++)
+            Thread.sleep(50);
+        Assertions.assertTrue(condition.getAsBoolean(), message);
+    }
+
+    @Test
+    void testWrites_reachOtherNodeCache() throws Exception {
+        final String username = "changeloguser1";
+        final String pwd = "P@ssword12";
+        try (ConfigurableApplicationContext first = node();
+             ConfigurableApplicationContext second = node("spring.datasource.initialization-mode=never")) {
+            UserCache secondCache = second.getBean(UserCache.class);
+            Assertions.assertEquals(Optional.empty(), secondCache.getPwd(username));
+
+            Assertions.assertEquals(HttpStatus.CREATED, first.getBean(UserService.class).setUser(new User(username, pwd)).join().getStatusCode());
+            await(() -> secondCache.getPwd(username).isPresent(), "registration on the first node never reached the second");
+            Assertions.assertEquals(HttpStatus.OK, second.getBean(UserService.class).loginUser(new User(username, pwd)).join().getStatusCode());
+
+            Assertions.assertEquals(HttpStatus.OK, second.getBean(UserService.class).rmUser(username).join().getStatusCode());
+            UserCache firstCache = first.getBean(UserCache.class);
+            await(() -> firstCache.getPwd(username).isEmpty(), "removal on the second node never reached the first");
+        }
+    }
+
+    @Test
+    void testImport_logsOneRowPerCreatedUser() throws Exception {
+        final String pwd = "P@ssword12";
+        final String body = "{\"username\":\"changelogimport1\",\"pwd\":\"P@ssword12\"}\n"
+                + "{\"username\":\"changelogimport2\",\"pwd\":\"P@ssword12\"}\n"
+                + "{\"username\":\"changelogimport1\",\"pwd\":\"P@ssword12\"}\n";
+        try (ConfigurableApplicationContext first = node();
+             ConfigurableApplicationContext second = node("spring.datasource.initialization-mode=never")) {
+            first.getBean(UserImportService.class).importUsers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream());
+
+            DSLContext dsl = first.getBean(DSLContext.class);
+            Assertions.assertEquals(2, dsl.fetchCount(USERS_CHANGELOG, USERNAME.in("changelogimport1", "changelogimport2")));
+            UserCache secondCache = second.getBean(UserCache.class);
+            await(() -> secondCache.getPwd("changelogimport2").isPresent(), "the import on the first node never reached the second");
+
+            Assertions.assertEquals(HttpStatus.OK, first.getBean(UserService.class).rmUser(new User("changelogimport1", pwd)).join().getStatusCode());
+            Assertions.assertEquals(HttpStatus.OK, first.getBean(UserService.class).rmUser(new User("changelogimport2", pwd)).join().getStatusCode());
+        }
+    }
+}
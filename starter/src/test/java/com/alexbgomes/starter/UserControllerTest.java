@@ -1,7 +1,12 @@
 package com.alexbgomes.starter;
 
+import com.alexbgomes.starter.business.cache.UsernameIndex;
+import com.alexbgomes.starter.business.service.UserService;
+import com.alexbgomes.starter.business.session.SessionTokenService;
 import com.alexbgomes.starter.data.entity.User;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Disabled;
@@ -9,16 +14,22 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /* TODO: Add beforeEach for cases, use a lib to generate fake user data for cases, move some cases into a single test
@@ -32,21 +43,185 @@ class UserControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UsernameIndex usernameIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private double userCacheGets() {
+        return meterRegistry.get("cache.gets").tag("cache", "users").functionCounters().stream().mapToDouble(FunctionCounter::count).sum();
+    }
+
     @Test
     void testDataSql() throws Exception {
         final String user = "admin";
-        final String pwd = "admin";
 
         MvcResult mvcResult = mockMvc.perform(get("/api/users"))
                 .andDo(print()).andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].username").value(user))
-                .andExpect(jsonPath("$[0].pwd").value(pwd))
+                .andExpect(jsonPath("$[0].pwd").doesNotExist())
                 .andReturn();
 
         Assertions.assertEquals("application/json", mvcResult.getResponse().getContentType());
     }
 
+    @Test
+    void testUsers_keysetPagination() throws Exception {
+        mockMvc.perform(get("/api/users").param("limit", "1"))
+                .andDo(print()).andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].username").value("admin"));
+
+        mockMvc.perform(get("/api/users").param("after", "admin"))
+                .andDo(print()).andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void testUsers_stream() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/api/users/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvcResult = mockMvc.perform(asyncDispatch(mvcResult))
+                .andDo(print()).andExpect(status().isOk())
+                .andReturn();
+
+        Assertions.assertEquals("{\"username\":\"admin\"}\n", mvcResult.getResponse().getContentAsString());
+    }
+
+    @Test
+    void testUsersImport() throws Exception {
+        final String pwd = "P@ssword12";
+        final String body = "{\"username\":\"importuser1\",\"pwd\":\"P@ssword12\"}\n"
+                + "{\"username\":\"importuser1\",\"pwd\":\"P@ssword12\"}\n"
+                + "{\"username\":\"short\",\"pwd\":\"P@ssword12\"}\n"
+                + "not json\n"
+                + "{\"username\":\"importuser2\",\"pwd\":\"P@ssword12\"}\n";
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/users/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvcResult = mockMvc.perform(asyncDispatch(mvcResult))
+                .andDo(print()).andExpect(status().isOk())
+                .andReturn();
+
+        Assertions.assertEquals("{\"line\":1,\"username\":\"importuser1\",\"status\":\"CREATED\"}\n"
+                        + "{\"line\":2,\"username\":\"importuser1\",\"status\":\"TAKEN\"}\n"
+                        + "{\"line\":3,\"username\":\"short\",\"status\":\"INVALID\",\"message\":\"Username must be at least 8 characters and at most 30 characters.\"}\n"
+                        + "{\"line\":4,\"status\":\"INVALID\",\"message\":\"Malformed JSON.\"}\n"
+                        + "{\"line\":5,\"username\":\"importuser2\",\"status\":\"CREATED\"}\n",
+                mvcResult.getResponse().getContentAsString());
+
+        Assertions.assertEquals(HttpStatus.OK, userService.rmUser(new User("importuser1", pwd)).join().getStatusCode());
+        Assertions.assertEquals(HttpStatus.OK, userService.rmUser(new User("importuser2", pwd)).join().getStatusCode());
+    }
+
+    @Test
+    void testUsersImport_nonObjectLines() throws Exception {
+        final String body = "null\n"
+                + "42\n"
+                + "[{\"username\":\"importuser3\",\"pwd\":\"P@ssword12\"}]\n"
+                + "{\"username\":\"importuser3\",\"pwd\":\"P@ssword12\"}\n";
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/users/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvcResult = mockMvc.perform(asyncDispatch(mvcResult))
+                .andDo(print()).andExpect(status().isOk())
+                .andReturn();
+
+        Assertions.assertEquals("{\"line\":1,\"status\":\"INVALID\",\"message\":\"Expected a JSON object.\"}\n"
+                        + "{\"line\":2,\"status\":\"INVALID\",\"message\":\"Expected a JSON object.\"}\n"
+                        + "{\"line\":3,\"status\":\"INVALID\",\"message\":\"Expected a JSON object.\"}\n"
+                        + "{\"line\":4,\"username\":\"importuser3\",\"status\":\"CREATED\"}\n",
+                mvcResult.getResponse().getContentAsString());
+
+        Assertions.assertEquals(HttpStatus.OK, userService.rmUser(new User("importuser3", "P@ssword12")).join().getStatusCode());
+    }
+
+    @Test
+    void testUserLifecycle() throws Exception {
+        final String username = "lifecycleuser";
+        final String pwd = "P@ssword12";
+        final User user = new User(username, pwd);
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvcResult = mockMvc.perform(asyncDispatch(mvcResult))
+                .andDo(print()).andExpect(status().isCreated())
+                .andReturn();
+
+        Assertions.assertEquals("New user created.", mvcResult.getResponse().getContentAsString());
+
+        mvcResult = mockMvc.perform(post("/api/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvcResult = mockMvc.perform(asyncDispatch(mvcResult))
+                .andDo(print()).andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString(), CoreMatchers.containsString(String.format("User %s logged in at ", username)));
+
+        mvcResult = mockMvc.perform(post("/api/unregister")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvcResult = mockMvc.perform(asyncDispatch(mvcResult))
+                .andDo(print()).andExpect(status().isOk())
+                .andReturn();
+
+        Assertions.assertEquals(String.format("User %s removed.", username), mvcResult.getResponse().getContentAsString());
+    }
+
+    @Test
+    void testRegister_requestCodec() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(post("/api/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"client\":{\"os\":\"android\",\"retries\":[1,2]},\"username\":\"codecuser1\",\"pwd\":1234567890}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvcResult = mockMvc.perform(asyncDispatch(mvcResult))
+                .andDo(print()).andExpect(status().isBadRequest())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/plain;charset=UTF-8"))
+                .andReturn();
+
+        String body = "Password must contain an uppercase, a lowercase, a number, and a special character.";
+        Assertions.assertEquals(body, mvcResult.getResponse().getContentAsString());
+        Assertions.assertEquals(body.length(), mvcResult.getResponse().getContentLength());
+
+        mockMvc.perform(post("/api/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":[\"codecuser1\"],\"pwd\":\"P@ssword12\"}"))
+                .andDo(print()).andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"codecuser1\","))
+                .andDo(print()).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Disabled
     void testUserRegistration_badUsernameLength() throws Exception {
@@ -401,4 +576,136 @@ class UserControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andReturn();
     }
+
+    @Test
+    void testLogin_throttledPerUsername() throws Exception {
+        final User user = new User("throttleduser", "P@ssword12");
+        final RequestPostProcessor fromAddress = request -> {
+            request.setRemoteAddr("10.0.0.11");
+            return request;
+        };
+
+        for (int i = 0; i < 10; i++) {
+            MvcResult mvcResult = mockMvc.perform(post("/api/login").with(fromAddress)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(user)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(mvcResult))
+                    .andExpect(status().isNotFound());
+        }
+
+        mockMvc.perform(post("/api/login").with(fromAddress)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user)))
+                .andDo(print()).andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void testUnregister_withSessionToken() throws Exception {
+        final String username = "tokenuser";
+        final User user = new User(username, "P@ssword12");
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult)).andExpect(status().isCreated());
+
+        mvcResult = mockMvc.perform(post("/api/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvcResult = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(SessionTokenService.TOKEN_HEADER))
+                .andReturn();
+        final String token = mvcResult.getResponse().getHeader(SessionTokenService.TOKEN_HEADER);
+
+        /* a bad signature is turned away before the stored hash is looked up */
+        final double cacheGets = userCacheGets();
+        mockMvc.perform(post("/api/unregister")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.substring(0, token.length() - 2) + "xx"))
+                .andExpect(status().isUnauthorized());
+        Assertions.assertEquals(cacheGets, userCacheGets());
+
+        mvcResult = mockMvc.perform(post("/api/unregister")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvcResult = mockMvc.perform(asyncDispatch(mvcResult))
+                .andDo(print()).andExpect(status().isOk())
+                .andReturn();
+        Assertions.assertEquals(String.format("User %s removed.", username), mvcResult.getResponse().getContentAsString());
+
+        /* revoked: the hash it was signed against is gone */
+        mockMvc.perform(post("/api/unregister")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testUsers_conditionalGet() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+        final String etag = mvcResult.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/users").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(print()).andExpect(status().isNotModified());
+
+        final User user = new User("etaguser", "P@ssword12");
+        mvcResult = mockMvc.perform(post("/api/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult)).andExpect(status().isCreated());
+
+        mvcResult = mockMvc.perform(get("/api/users").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andReturn();
+        Assertions.assertNotEquals(etag, mvcResult.getResponse().getHeader(HttpHeaders.ETAG));
+
+        userService.rmUser(user).join();
+        mockMvc.perform(get("/api/users").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testSearchUsers_byPrefix() throws Exception {
+        final String[] usernames = {"searchuser2", "searchuser1", "searchother"};
+        for (String username : usernames)
+            userService.setUser(new User(username, "P@ssword12")).join();
+        for (int i = 0; i < 50 && !usernameIndex.isReady(); i++)
+            Thread.sleep(100);
+
+        try {
+            mockMvc.perform(get("/api/users/search").param("prefix", "searchuser"))
+                    .andDo(print()).andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(2)))
+                    .andExpect(jsonPath("$[0].username").value("searchuser1"))
+                    .andExpect(jsonPath("$[1].username").value("searchuser2"));
+
+            mockMvc.perform(get("/api/users/search").param("prefix", "search").param("limit", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].username").value("searchother"));
+
+            userService.rmUser("searchuser1").join();
+            mockMvc.perform(get("/api/users/search").param("prefix", "searchuser"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].username").value("searchuser2"));
+        } finally {
+            for (String username : usernames)
+                userService.rmUser(username).join();
+        }
+    }
 }
@@ -0,0 +1,127 @@
+package com.alexbgomes.starter;
+
+import com.alexbgomes.starter.business.cache.UsernameFilter;
+import com.alexbgomes.starter.business.metrics.UserApiMetrics;
+import com.alexbgomes.starter.business.service.UserService;
+import com.alexbgomes.starter.data.entity.User;
+import com.alexbgomes.starter.data.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@SpringBootTest
+class UserServiceTest {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UsernameFilter usernameFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "users").tag("result", result).functionCounter().count();
+    }
+
+    @Test
+    void testUserLifecycle_noRepositoryLookups() throws Exception {
+        final String username = "cacheduser1";
+        final String pwd = "P@ssword12";
+        for (int i = 0; i < 50 && !usernameFilter.isReady(); i++)
+            Thread.sleep(100);
+        final double missesBefore = cacheGets("miss");
+        final double negativesBefore = meterRegistry.get("users.filter.negatives").counter().count();
+
+        ResponseEntity<String> response = userService.setUser(new User(username, pwd)).join();
+        Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
+
+        response = userService.loginUser(new User(username, pwd)).join();
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        response = userService.loginUser(new User(username, "P@ssword122")).join();
+        Assertions.assertEquals("Password is incorrect.", response.getBody());
+
+        response = userService.rmUser(new User(username, pwd)).join();
+        Assertions.assertEquals(String.format("User %s removed.", username), response.getBody());
+
+        response = userService.loginUser(new User(username, pwd)).join();
+        Assertions.assertEquals(String.format("User %s not found.", username), response.getBody());
+
+        Assertions.assertEquals(missesBefore, cacheGets("miss"));
+        Assertions.assertEquals(negativesBefore + 1, meterRegistry.get("users.filter.negatives").counter().count());
+    }
+
+    @Test
+    void testLoginUser_rehashesLegacyPlaintext() throws Exception {
+        final String username = "legacyuser1";
+        final String pwd = "L3gacy@pass";
+        userRepository.save(new User(username, pwd));
+        usernameFilter.rebuild();
+
+        ResponseEntity<String> response = userService.loginUser(new User(username, pwd)).join();
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        String storedPwd = userRepository.findById(username).orElseThrow().getPwd();
+        Assertions.assertTrue(storedPwd.startsWith("{bcrypt}$2a$"), storedPwd);
+
+        response = userService.rmUser(new User(username, pwd)).join();
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void testSetUser_staleLookupNeverReplacesExistingUser() throws Exception {
+        final String username = "takenuser1";
+        for (int i = 0; i < 50 && !usernameFilter.isReady(); i++)
+            Thread.sleep(100);
+        final String storedPwd = passwordEncoder.encode("T4ken@pass");
+        userRepository.save(new User(username, storedPwd));
+
+        ResponseEntity<String> response = userService.setUser(new User(username, "0ther@pass1")).join();
+        Assertions.assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        Assertions.assertEquals(storedPwd, userRepository.findById(username).orElseThrow().getPwd());
+
+        response = userService.loginUser(new User(username, "T4ken@pass")).join();
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        userRepository.deleteById(username);
+    }
+
+    private long stageCount(String endpoint, String stage, String outcome) {
+        Timer timer = meterRegistry.find(UserApiMetrics.STAGE_TIMER).tag("endpoint", endpoint).tag("stage", stage).tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    @Test
+    void testLoginUser_recordsStageLatencies() {
+        final long validationBefore = stageCount("login", "validation", "passlen");
+        final long hashingBefore = stageCount("login", "hashing", "match");
+
+        final String username = "metricsuser1";
+        final String pwd = "M3trics@pass";
+        ResponseEntity<String> response = userService.setUser(new User(username, pwd)).join();
+        Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
+
+        response = userService.loginUser(new User(username, "short")).join();
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        response = userService.loginUser(new User(username, pwd)).join();
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        userService.rmUser(new User(username, pwd)).join();
+
+        Assertions.assertEquals(validationBefore + 1, stageCount("login", "validation", "passlen"));
+        Assertions.assertEquals(hashingBefore + 1, stageCount("login", "hashing", "match"));
+        Assertions.assertTrue(stageCount("login", "repository", "found") > 0);
+        Assertions.assertTrue(stageCount("login", "response", "ok") > 0);
+    }
+}
@@ -0,0 +1,48 @@
+package com.alexbgomes.starter;
+
+import com.alexbgomes.starter.business.domain.ValidationLevel;
+import com.alexbgomes.starter.business.validation.UserValidator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+class UserValidatorTest {
+    private final UserValidator userValidator = new UserValidator();
+
+    private static ValidationLevel legacyValidate(String username, String pwd) {
+        if (username.length() < 8 || username.length() > 30)
+            return ValidationLevel.USERLEN;
+
+        if (!Pattern.matches("^[a-zA-Z0-9]+$", username))
+            return ValidationLevel.USERINVALID;
+
+        if (pwd.length() < 10 || pwd.length() > 18)
+            return ValidationLevel.PASSLEN;
+
+        if (!Pattern.matches("^(?=.*[A-Za-z])(?=.*\\d)(?=.*[@$!%*#?&])[A-Za-z\\d@$!%*#?&]+$", pwd))
+            return ValidationLevel.PASSINVALID;
+
+        return ValidationLevel.CLEAR;
+    }
+
+    @Test
+    void testValidateFormat_matchesLegacyPatterns() {
+        final String[] usernames = {"1234567", "12345678", "1234567!", "alexgomes", "alex gomes", "alexgomés1",
+                "abcdefghijklmnopqrstuvwxyz1234", "abcdefghijklmnopqrstuvwxyz12345"};
+        final String[] pwds = {"@Bc23j3sd", "@Bc23j3sd^3sd", "@Bc23j3sd^sd+\\", "P@ssword12", "P@ssword122",
+                "Password12", "P@ssword@@", "1234567890@", "P@ssword12345678901", "P@ssw0rd 12", "P@ssword12+\\"};
+
+        for (String username : usernames) {
+            for (String pwd : pwds) {
+                Assertions.assertEquals(legacyValidate(username, pwd), userValidator.validateFormat(username, pwd), username + " / " + pwd);
+            }
+        }
+    }
+
+    @Test
+    void testValidateFormat_nullFields() {
+        Assertions.assertEquals(ValidationLevel.USERLEN, userValidator.validateFormat(null, "P@ssword12"));
+        Assertions.assertEquals(ValidationLevel.PASSLEN, userValidator.validateFormat("alexgomes", null));
+    }
+}